@@ -0,0 +1,126 @@
+package io.github.kebritam.redis.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflates elements of the delegate codec which are at least {@code threshold} bytes. Each element starts with
+ * a header byte telling whether it is compressed, followed by the original length for compressed elements, so
+ * compressed and plain elements can share a collection. Elements which do not get smaller are stored plain.
+ * Every element of a collection must go through this codec, as elements without a header can not be told apart.
+ */
+public class CompressingCodec<E> implements ElementCodec<E> {
+
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+    private static final int DEFLATED_HEADER_SIZE = 5;
+    // Redis strings are at most 512 MiB, and deflate expands a byte to at most 1032.
+    private static final int MAX_INFLATED_SIZE = 512 << 20;
+    private static final int MAX_INFLATE_RATIO = 1032;
+
+    private final ElementCodec<E> delegate;
+    private final int threshold;
+    private final int level;
+
+    public CompressingCodec(ElementCodec<E> delegate) {
+        this(delegate, 1024, Deflater.BEST_SPEED);
+    }
+
+    public CompressingCodec(ElementCodec<E> delegate, int threshold, int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION
+                && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9, or -1 for the default.");
+        }
+        this.delegate = delegate;
+        this.threshold = threshold;
+        this.level = level;
+    }
+
+    @Override
+    public void encode(E element, OutputStream out) throws IOException {
+        byte[] plain = this.delegate.encode(element);
+        if (plain.length >= this.threshold && plain.length > DEFLATED_HEADER_SIZE) {
+            byte[] deflated = this.deflate(plain);
+            if (deflated != null) {
+                out.write(DEFLATED);
+                out.write(plain.length >>> 24);
+                out.write(plain.length >>> 16);
+                out.write(plain.length >>> 8);
+                out.write(plain.length);
+                out.write(deflated);
+                return;
+            }
+        }
+        out.write(PLAIN);
+        out.write(plain);
+    }
+
+    @Override
+    public E decode(byte[] bytes) {
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("Element has no header.");
+        }
+        return switch (bytes[0]) {
+            case PLAIN -> this.delegate.decode(Arrays.copyOfRange(bytes, 1, bytes.length));
+            case DEFLATED -> this.delegate.decode(inflate(bytes));
+            default -> throw new IllegalArgumentException("Unknown element header " + bytes[0] + ".");
+        };
+    }
+
+    /**
+     * Returns the deflated bytes, or null if they would not be smaller than the plain ones with their header.
+     */
+    private byte[] deflate(byte[] plain) {
+        Deflater deflater = new Deflater(this.level);
+        try {
+            deflater.setInput(plain);
+            deflater.finish();
+            byte[] deflated = new byte[plain.length - DEFLATED_HEADER_SIZE];
+            int length = 0;
+            while (!deflater.finished() && length < deflated.length) {
+                length += deflater.deflate(deflated, length, deflated.length - length);
+            }
+            return deflater.finished() ? Arrays.copyOf(deflated, length) : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) {
+        if (bytes.length < DEFLATED_HEADER_SIZE) {
+            throw new IllegalArgumentException("Compressed element is truncated.");
+        }
+        int length = (bytes[1] & 0xff) << 24 | (bytes[2] & 0xff) << 16 | (bytes[3] & 0xff) << 8 | (bytes[4] & 0xff);
+        // Checked before allocating, so a corrupt header can not ask for an arbitrarily large array.
+        if (length < 0 || length > MAX_INFLATED_SIZE
+                || length > (long) (bytes.length - DEFLATED_HEADER_SIZE) * MAX_INFLATE_RATIO) {
+            throw new IllegalArgumentException("Compressed element has an invalid length " + length + ".");
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, DEFLATED_HEADER_SIZE, bytes.length - DEFLATED_HEADER_SIZE);
+            byte[] plain = new byte[length];
+            int inflated = 0;
+            while (!inflater.finished() && inflated < length) {
+                int read = inflater.inflate(plain, inflated, length - inflated);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Compressed element is truncated.");
+                }
+                inflated += read;
+            }
+            // The stream must end right after the promised length, and not have more to give.
+            if (inflated != length || inflater.inflate(new byte[1]) != 0 || !inflater.finished()) {
+                throw new IllegalArgumentException("Compressed element does not match its length.");
+            }
+            return plain;
+        } catch (DataFormatException ex) {
+            throw new IllegalArgumentException("Compressed element is corrupt.", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+}
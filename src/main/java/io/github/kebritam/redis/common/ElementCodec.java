@@ -0,0 +1,41 @@
+package io.github.kebritam.redis.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary form of elements, for payloads like protobuf or Avro which would otherwise be Base64-encoded into a
+ * String. Elements are written to a stream, so the buffer behind it can be reused from call to call.
+ */
+public interface ElementCodec<E> {
+
+    void encode(E element, OutputStream out) throws IOException;
+
+    E decode(byte[] bytes);
+
+    /**
+     * Encodes the element through a buffer which the calling thread reuses, so only the returned array is
+     * allocated.
+     */
+    default byte[] encode(E element) {
+        return EncodeBuffer.encode(this, element);
+    }
+
+    /**
+     * Adapts a translator, storing its Strings as UTF-8 like the String commands of Jedis do.
+     */
+    static <E> ElementCodec<E> of(ElementTranslator<E> translator) {
+        return new ElementCodec<>() {
+            @Override
+            public void encode(E element, OutputStream out) throws IOException {
+                out.write(translator.serialize(element).getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public E decode(byte[] bytes) {
+                return translator.deserialize(new String(bytes, StandardCharsets.UTF_8));
+            }
+        };
+    }
+}
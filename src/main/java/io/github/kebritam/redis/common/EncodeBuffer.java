@@ -0,0 +1,39 @@
+package io.github.kebritam.redis.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Per-thread buffer which elements are encoded into. The buffer is taken out while in use, so a codec which
+ * encodes through another codec gets a buffer of its own. A buffer which grew past {@code MAX_RETAINED} for a
+ * large element is dropped after use, so one large element does not pin its memory for the life of the thread.
+ */
+final class EncodeBuffer {
+
+    private static final int INITIAL_SIZE = 256;
+    private static final int MAX_RETAINED = 1 << 20;
+    private static final ThreadLocal<ByteArrayOutputStream> BUFFERS = new ThreadLocal<>();
+
+    private EncodeBuffer() {
+    }
+
+    static <E> byte[] encode(ElementCodec<E> codec, E element) {
+        ByteArrayOutputStream buffer = BUFFERS.get();
+        if (buffer == null) {
+            buffer = new ByteArrayOutputStream(INITIAL_SIZE);
+        } else {
+            BUFFERS.set(null);
+        }
+        try {
+            codec.encode(element, buffer);
+        } catch (IOException ex) {
+            throw new RuntimeException("Exception occurred when encoding an element.", ex);
+        }
+        byte[] encoded = buffer.toByteArray();
+        if (encoded.length <= MAX_RETAINED) {
+            buffer.reset();
+            BUFFERS.set(buffer);
+        }
+        return encoded;
+    }
+}
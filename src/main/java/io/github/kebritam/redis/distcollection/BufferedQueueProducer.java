@@ -0,0 +1,166 @@
+package io.github.kebritam.redis.distcollection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind producer for a {@link Queue}. Elements are collected in a local ring buffer and written with one
+ * {@link Queue#pushAll} per batch, once {@code batchSize} elements are waiting or {@code linger} passed, which
+ * trades a few milliseconds of latency for far fewer round trips. The buffer holds at most {@code capacity}
+ * elements, and the {@link OverflowPolicy} decides what a push does when it is full.
+ */
+public final class BufferedQueueProducer<E> implements AutoCloseable {
+
+    public enum OverflowPolicy {
+        /** Waits until the flusher made room. */
+        BLOCK,
+        /** Drops the element and returns false. */
+        DROP,
+        /** Throws an {@link IllegalStateException}. */
+        FAIL
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BufferedQueueProducer.class);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final Queue<E> queue;
+    private final RingBuffer<E> buffer;
+    private final int batchSize;
+    private final long linger;
+    private final OverflowPolicy overflowPolicy;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final List<E> batch;
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+    private final AtomicInteger pushing = new AtomicInteger();
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    public BufferedQueueProducer(Queue<E> queue) {
+        this(queue, 512, Duration.ofMillis(5), 1 << 16, OverflowPolicy.BLOCK);
+    }
+
+    public BufferedQueueProducer(Queue<E> queue, int batchSize, Duration linger, int capacity,
+                                 OverflowPolicy overflowPolicy) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        this.queue = queue;
+        this.buffer = new RingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.linger = linger.toNanos();
+        this.overflowPolicy = overflowPolicy;
+        this.batch = new ArrayList<>(batchSize);
+        this.flusher = Thread.ofPlatform().daemon().name("buffered-queue-producer-flusher").start(this::runFlusher);
+    }
+
+    /**
+     * Buffers the element to be pushed to the queue. Returns false only when the buffer is full and the policy
+     * is {@link OverflowPolicy#DROP}.
+     */
+    public boolean push(E e) {
+        // Counted before checking closed, so close() either sees this push and waits for it, or the push sees close.
+        this.pushing.incrementAndGet();
+        try {
+            return this.offer(e);
+        } finally {
+            this.pushing.decrementAndGet();
+        }
+    }
+
+    private boolean offer(E e) {
+        if (this.closed) {
+            throw new IllegalStateException("Producer is closed.");
+        }
+        while (!this.buffer.offer(e)) {
+            switch (this.overflowPolicy) {
+                case DROP:
+                    return false;
+                case FAIL:
+                    throw new IllegalStateException("Producer buffer is full.");
+                default:
+                    this.wakeFlusher();
+                    LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                    if (this.closed) {
+                        throw new IllegalStateException("Producer is closed.");
+                    }
+            }
+        }
+        if (this.buffer.size() >= this.batchSize) {
+            this.wakeFlusher();
+        }
+        return true;
+    }
+
+    /**
+     * Writes every element pushed before this call to the queue, and returns once they are written.
+     */
+    public void flush() {
+        long target = this.buffer.claimed();
+        this.flushLock.lock();
+        try {
+            while (!this.batch.isEmpty() || this.buffer.drained() < target) {
+                if (this.batch.isEmpty() && this.buffer.drainTo(this.batch, this.batchSize) == 0) {
+                    // A producer claimed a slot and did not fill it yet.
+                    Thread.onSpinWait();
+                    continue;
+                }
+                // The batch is kept when the push fails, so the next flush retries it.
+                this.queue.pushAll(this.batch);
+                this.batch.clear();
+            }
+        } finally {
+            this.flushLock.unlock();
+        }
+    }
+
+    public int buffered() {
+        return this.buffer.size();
+    }
+
+    private void wakeFlusher() {
+        if (this.wakeRequested.compareAndSet(false, true)) {
+            LockSupport.unpark(this.flusher);
+        }
+    }
+
+    private void runFlusher() {
+        while (!this.closed) {
+            LockSupport.parkNanos(this, this.linger);
+            this.wakeRequested.set(false);
+            try {
+                this.flush();
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Could not push buffered elements to the queue.", ex);
+                // Back off, as the queue is likely unreachable.
+                LockSupport.parkNanos(this, this.linger);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting elements, and writes what is buffered, including elements of pushes which raced it.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        while (this.pushing.get() > 0) {
+            Thread.onSpinWait();
+        }
+        LockSupport.unpark(this.flusher);
+        try {
+            this.flusher.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        this.flush();
+    }
+}
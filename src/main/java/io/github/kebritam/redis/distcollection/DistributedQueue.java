@@ -1,33 +1,58 @@
 package io.github.kebritam.redis.distcollection;
 
+import io.github.kebritam.redis.common.ElementCodec;
 import io.github.kebritam.redis.common.ElementTranslator;
 import io.github.kebritam.redis.common.RedisHelpers;
 import redis.clients.jedis.DefaultJedisClientConfig;
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.util.KeyValue;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
-public class DistributedQueue<E> implements Queue<E> {
+public class DistributedQueue<E> implements Queue<E>, AutoCloseable {
 
-    private final String key;
+    private static final byte[] PUSH_LAST = "push_last".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OFFER_LAST = "offer_last".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] key;
 
     private final JedisPool pool;
-    private final ElementTranslator<E> translator;
-    private final int maxSize;
+    private final ElementCodec<E> codec;
+    private final byte[] maxSize;
 
     public DistributedQueue(String redisAddress, ElementTranslator<E> translator) {
         this(redisAddress, translator, -1);
     }
 
     public DistributedQueue(String redisAddress, ElementTranslator<E> translator, int maxSize) {
-        this.key = "distributed.queue." + UUID.randomUUID();
+        this(redisAddress, ElementCodec.of(translator), maxSize);
+    }
+
+    public DistributedQueue(String redisAddress, ElementCodec<E> codec) {
+        this(redisAddress, codec, -1);
+    }
+
+    public DistributedQueue(String redisAddress, ElementCodec<E> codec, int maxSize) {
+        this(redisAddress, UUID.randomUUID().toString(), codec, maxSize);
+    }
+
+    /**
+     * Creates a queue on the list named {@code name}, so queues of every client which use the same name share
+     * the elements.
+     */
+    public DistributedQueue(String redisAddress, String name, ElementCodec<E> codec, int maxSize) {
+        this.key = ("distributed.queue." + name).getBytes(StandardCharsets.UTF_8);
         this.pool = new JedisPool(HostAndPort.from(redisAddress), DefaultJedisClientConfig.builder().build());
-        this.translator = translator;
-        this.maxSize = maxSize;
+        this.codec = codec;
+        this.maxSize = String.valueOf(maxSize).getBytes(StandardCharsets.UTF_8);
 
         byte[] luaScript = RedisHelpers.getLuaScript(Path.of("src/main/resources/lua/distqueue.lua"));
         try (Jedis jedis = this.pool.getResource()) {
@@ -38,52 +63,134 @@ public class DistributedQueue<E> implements Queue<E> {
     @Override
     public void pushLast(E e) {
         try (Jedis jedis = pool.getResource()) {
-            jedis.fcall(
-                    "push_last",
-                    List.of(this.key),
-                    List.of(String.valueOf(this.maxSize), this.translator.serialize(e)));
+            jedis.fcall(PUSH_LAST, List.of(this.key), List.of(this.maxSize, this.codec.encode(e)));
         }
     }
 
     @Override
     public boolean offerLast(E e) {
         try (Jedis jedis = pool.getResource()) {
-            Object res = jedis.fcall(
-                    "offer_last",
-                    List.of(this.key),
-                    List.of(String.valueOf(this.maxSize), this.translator.serialize(e)));
-            return res != null;
+            Object res = jedis.fcall(OFFER_LAST, List.of(this.key), List.of(this.maxSize, this.codec.encode(e)));
+            return (Long) res == 1;
         }
     }
 
     @Override
     public E popFirst() {
         try (Jedis jedis = this.pool.getResource()) {
-            List<String> elements = jedis.blpop(0, key);
-            return this.translator.deserialize(elements.get(1));
+            List<byte[]> elements = jedis.blpop(0, this.key);
+            return this.codec.decode(elements.get(1));
+        }
+    }
+
+    @Override
+    public E popFirst(Duration timeout) {
+        // A timeout of zero would block forever.
+        if (timeout.toMillis() <= 0) {
+            return this.pollFirst();
+        }
+        try (Jedis jedis = this.pool.getResource()) {
+            KeyValue<byte[], byte[]> element = jedis.blpop(timeout.toMillis() / 1000.0, this.key);
+            return element == null ? null : this.codec.decode(element.getValue());
         }
     }
 
     @Override
     public E pollFirst() {
         try (Jedis jedis = this.pool.getResource()) {
-            String element = jedis.lpop(key);
-            return element == null ? null : this.translator.deserialize(element);
+            byte[] element = jedis.lpop(this.key);
+            return element == null ? null : this.codec.decode(element);
         }
     }
 
     @Override
     public E peekFirst() {
         try (Jedis jedis = this.pool.getResource()) {
-            List<String> elements = jedis.lrange(key, 0, 0);
-            return elements.isEmpty() ? null : this.translator.deserialize(elements.getFirst());
+            List<byte[]> elements = jedis.lrange(this.key, 0, 0);
+            return elements.isEmpty() ? null : this.codec.decode(elements.getFirst());
         }
     }
 
     @Override
     public long size() {
         try (Jedis jedis = this.pool.getResource()) {
-            return jedis.llen(key);
+            return jedis.llen(this.key);
+        }
+    }
+
+    @Override
+    public void pushAll(Collection<? extends E> elements) {
+        if (elements.isEmpty()) {
+            return;
+        }
+        try (Jedis jedis = pool.getResource()) {
+            jedis.fcall(PUSH_LAST, List.of(this.key), this.batchArgs(elements));
+        }
+    }
+
+    @Override
+    public int offerAll(Collection<? extends E> elements) {
+        if (elements.isEmpty()) {
+            return 0;
         }
+        try (Jedis jedis = pool.getResource()) {
+            Object res = jedis.fcall(OFFER_LAST, List.of(this.key), this.batchArgs(elements));
+            return ((Long) res).intValue();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        List<E> elements = this.pollBatch(maxElements);
+        target.addAll(elements);
+        return elements.size();
+    }
+
+    @Override
+    public List<E> pollBatch(int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        try (Jedis jedis = this.pool.getResource()) {
+            List<byte[]> elements = jedis.lpop(this.key, count);
+            if (elements == null) {
+                return List.of();
+            }
+            List<E> result = new ArrayList<>(elements.size());
+            for (byte[] element : elements) {
+                result.add(this.codec.decode(element));
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public void requeue(Collection<? extends E> elements) {
+        if (elements.isEmpty()) {
+            return;
+        }
+        // Pushed last to first, so the first element ends up where the next poll takes from.
+        byte[][] encoded = new byte[elements.size()][];
+        int i = encoded.length;
+        for (E element : elements) {
+            encoded[--i] = this.codec.encode(element);
+        }
+        try (Jedis jedis = this.pool.getResource()) {
+            jedis.lpush(this.key, encoded);
+        }
+    }
+
+    private List<byte[]> batchArgs(Collection<? extends E> elements) {
+        List<byte[]> args = new ArrayList<>(elements.size() + 1);
+        args.add(this.maxSize);
+        for (E element : elements) {
+            args.add(this.codec.encode(element));
+        }
+        return args;
+    }
+
+    @Override
+    public void close() {
+        this.pool.close();
     }
 }
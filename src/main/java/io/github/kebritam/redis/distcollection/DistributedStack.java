@@ -1,29 +1,46 @@
 package io.github.kebritam.redis.distcollection;
 
+import io.github.kebritam.redis.common.ElementCodec;
 import io.github.kebritam.redis.common.ElementTranslator;
 import io.github.kebritam.redis.common.RedisHelpers;
 import redis.clients.jedis.*;
+import redis.clients.jedis.util.KeyValue;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public class DistributedStack<E> implements Stack<E> {
 
-    private final String key;
+    private static final byte[] PUSH_FIRST = "push_first".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OFFER_FIRST = "offer_first".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] key;
     private final JedisPool pool;
-    private final ElementTranslator<E> translator;
-    private final int maxSize;
+    private final ElementCodec<E> codec;
+    private final byte[] maxSize;
 
     public DistributedStack(String redisAddress, ElementTranslator<E> translator) {
         this(redisAddress, translator, -1);
     }
 
     public DistributedStack(String redisAddress, ElementTranslator<E> translator, int maxSize) {
-        this.key = "distributed.stack." + UUID.randomUUID();
+        this(redisAddress, ElementCodec.of(translator), maxSize);
+    }
+
+    public DistributedStack(String redisAddress, ElementCodec<E> codec) {
+        this(redisAddress, codec, -1);
+    }
+
+    public DistributedStack(String redisAddress, ElementCodec<E> codec, int maxSize) {
+        this.key = ("distributed.stack." + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
         this.pool = new JedisPool(HostAndPort.from(redisAddress), DefaultJedisClientConfig.builder().build());
-        this.translator = translator;
-        this.maxSize = maxSize;
+        this.codec = codec;
+        this.maxSize = String.valueOf(maxSize).getBytes(StandardCharsets.UTF_8);
 
         byte[] luaScript = RedisHelpers.getLuaScript(Path.of("src/main/resources/lua/diststack.lua"));
         try (Jedis jedis = this.pool.getResource()) {
@@ -34,52 +51,129 @@ public class DistributedStack<E> implements Stack<E> {
     @Override
     public void pushFirst(E e) {
         try (Jedis jedis = pool.getResource()) {
-            jedis.fcall(
-                    "push_first",
-                    List.of(this.key),
-                    List.of(String.valueOf(this.maxSize), this.translator.serialize(e)));
+            jedis.fcall(PUSH_FIRST, List.of(this.key), List.of(this.maxSize, this.codec.encode(e)));
         }
     }
 
     @Override
     public boolean offerFirst(E e) {
         try (Jedis jedis = pool.getResource()) {
-            Object res = jedis.fcall(
-                    "offer_first",
-                    List.of(this.key),
-                    List.of(String.valueOf(this.maxSize), this.translator.serialize(e)));
-            return res != null;
+            Object res = jedis.fcall(OFFER_FIRST, List.of(this.key), List.of(this.maxSize, this.codec.encode(e)));
+            return (Long) res == 1;
         }
     }
 
     @Override
     public E popFirst() {
         try (Jedis jedis = this.pool.getResource()) {
-            List<String> elements = jedis.brpop(0, key);
-            return this.translator.deserialize(elements.get(1));
+            List<byte[]> elements = jedis.brpop(0, this.key);
+            return this.codec.decode(elements.get(1));
+        }
+    }
+
+    @Override
+    public E popFirst(Duration timeout) {
+        // A timeout of zero would block forever.
+        if (timeout.toMillis() <= 0) {
+            return this.pollFirst();
+        }
+        try (Jedis jedis = this.pool.getResource()) {
+            KeyValue<byte[], byte[]> element = jedis.brpop(timeout.toMillis() / 1000.0, this.key);
+            return element == null ? null : this.codec.decode(element.getValue());
         }
     }
 
     @Override
     public E pollFirst() {
         try (Jedis jedis = this.pool.getResource()) {
-            String element = jedis.rpop(key);
-            return element == null ? null : this.translator.deserialize(element);
+            byte[] element = jedis.rpop(this.key);
+            return element == null ? null : this.codec.decode(element);
         }
     }
 
     @Override
     public E peekFirst() {
         try (Jedis jedis = this.pool.getResource()) {
-            List<String> elements = jedis.lrange(key, -1, -1);
-            return elements.isEmpty() ? null : this.translator.deserialize(elements.getFirst());
+            List<byte[]> elements = jedis.lrange(this.key, -1, -1);
+            return elements.isEmpty() ? null : this.codec.decode(elements.getFirst());
         }
     }
 
     @Override
     public long size() {
         try (Jedis jedis = this.pool.getResource()) {
-            return jedis.llen(key);
+            return jedis.llen(this.key);
+        }
+    }
+
+    @Override
+    public void pushAll(Collection<? extends E> elements) {
+        if (elements.isEmpty()) {
+            return;
+        }
+        try (Jedis jedis = pool.getResource()) {
+            jedis.fcall(PUSH_FIRST, List.of(this.key), this.batchArgs(elements));
+        }
+    }
+
+    @Override
+    public int offerAll(Collection<? extends E> elements) {
+        if (elements.isEmpty()) {
+            return 0;
+        }
+        try (Jedis jedis = pool.getResource()) {
+            Object res = jedis.fcall(OFFER_FIRST, List.of(this.key), this.batchArgs(elements));
+            return ((Long) res).intValue();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        List<E> elements = this.pollBatch(maxElements);
+        target.addAll(elements);
+        return elements.size();
+    }
+
+    @Override
+    public List<E> pollBatch(int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        try (Jedis jedis = this.pool.getResource()) {
+            List<byte[]> elements = jedis.rpop(this.key, count);
+            if (elements == null) {
+                return List.of();
+            }
+            List<E> result = new ArrayList<>(elements.size());
+            for (byte[] element : elements) {
+                result.add(this.codec.decode(element));
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public void requeue(Collection<? extends E> elements) {
+        if (elements.isEmpty()) {
+            return;
+        }
+        // Pushed last to first, so the first element ends up where the next poll takes from.
+        byte[][] encoded = new byte[elements.size()][];
+        int i = encoded.length;
+        for (E element : elements) {
+            encoded[--i] = this.codec.encode(element);
+        }
+        try (Jedis jedis = this.pool.getResource()) {
+            jedis.rpush(this.key, encoded);
+        }
+    }
+
+    private List<byte[]> batchArgs(Collection<? extends E> elements) {
+        List<byte[]> args = new ArrayList<>(elements.size() + 1);
+        args.add(this.maxSize);
+        for (E element : elements) {
+            args.add(this.codec.encode(element));
         }
+        return args;
     }
 }
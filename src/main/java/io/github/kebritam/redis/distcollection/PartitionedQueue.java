@@ -0,0 +1,369 @@
+package io.github.kebritam.redis.distcollection;
+
+import io.github.kebritam.redis.common.ElementCodec;
+import io.github.kebritam.redis.common.ElementTranslator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Queue spread over one list key per address, so producers and consumers are spread over many keys and the nodes
+ * behind them instead of one. An address may be given more than once for more keys on one node. The
+ * {@link Partitioner} decides where an element goes, so order holds within a partition only. Clients share the
+ * partitions when they give the same name and addresses, or the same queues.
+ * <p>
+ * Polls of the queue itself rotate over all partitions. {@link #consumer} gives a consumer which polls its own
+ * stripe of partitions first, and steals from the others only when its own are empty.
+ */
+public class PartitionedQueue<E> implements Queue<E>, AutoCloseable {
+
+    private static final long MIN_BACKOFF = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_BACKOFF = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final List<Queue<E>> partitions;
+    private final boolean ownsPartitions;
+    private final Partitioner<E> partitioner;
+    private final AtomicInteger nextPoll = new AtomicInteger();
+
+    public PartitionedQueue(List<String> redisAddresses, ElementTranslator<E> translator, Partitioner<E> partitioner) {
+        this(redisAddresses, ElementCodec.of(translator), -1, partitioner);
+    }
+
+    public PartitionedQueue(List<String> redisAddresses, ElementCodec<E> codec, Partitioner<E> partitioner) {
+        this(redisAddresses, codec, -1, partitioner);
+    }
+
+    /**
+     * Creates a queue on partitions of a random name, which no other client can attach to.
+     *
+     * @param maxSize max size of each partition
+     */
+    public PartitionedQueue(List<String> redisAddresses, ElementCodec<E> codec, int maxSize,
+                            Partitioner<E> partitioner) {
+        this(redisAddresses, UUID.randomUUID().toString(), codec, maxSize, partitioner);
+    }
+
+    /**
+     * Creates a queue whose partition {@code i} is the list {@code name:i} on {@code redisAddresses[i]}, which are
+     * closed on {@link #close()}.
+     *
+     * @param maxSize max size of each partition
+     */
+    public PartitionedQueue(List<String> redisAddresses, String name, ElementCodec<E> codec, int maxSize,
+                            Partitioner<E> partitioner) {
+        this(createPartitions(redisAddresses, name, codec, maxSize), partitioner, true);
+    }
+
+    /**
+     * Creates a queue on partitions of the caller, which are left open on {@link #close()}.
+     */
+    public PartitionedQueue(List<? extends Queue<E>> partitions, Partitioner<E> partitioner) {
+        this(partitions, partitioner, false);
+    }
+
+    private PartitionedQueue(List<? extends Queue<E>> partitions, Partitioner<E> partitioner,
+                             boolean ownsPartitions) {
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException("At least one partition is needed.");
+        }
+        this.partitions = List.copyOf(partitions);
+        this.ownsPartitions = ownsPartitions;
+        this.partitioner = partitioner;
+    }
+
+    private static <E> List<DistributedQueue<E>> createPartitions(List<String> redisAddresses, String name,
+                                                                  ElementCodec<E> codec, int maxSize) {
+        List<DistributedQueue<E>> queues = new ArrayList<>(redisAddresses.size());
+        for (int i = 0; i < redisAddresses.size(); i++) {
+            queues.add(new DistributedQueue<>(redisAddresses.get(i), name + ":" + i, codec, maxSize));
+        }
+        return queues;
+    }
+
+    public int partitions() {
+        return this.partitions.size();
+    }
+
+    public List<Long> partitionSizes() {
+        return this.partitions.stream().map(Queue::size).toList();
+    }
+
+    /**
+     * Returns consumer {@code index} of {@code consumers}, which owns every partition whose number modulo
+     * {@code consumers} is {@code index}.
+     */
+    public StripeConsumer consumer(int index, int consumers) {
+        if (consumers <= 0 || index < 0 || index >= consumers) {
+            throw new IllegalArgumentException("Consumer index must be between 0 and the number of consumers.");
+        }
+        return new StripeConsumer(index, consumers);
+    }
+
+    @Override
+    public void pushLast(E e) {
+        this.partitionOf(e).pushLast(e);
+    }
+
+    @Override
+    public boolean offerLast(E e) {
+        return this.partitionOf(e).offerLast(e);
+    }
+
+    /**
+     * Polls until an element arrives, backing off while every partition is empty, as a blocking pop can not wait
+     * on keys of different nodes at once.
+     */
+    @Override
+    public E popFirst() {
+        return awaitElement(this::pollFirst);
+    }
+
+    @Override
+    public E popFirst(Duration timeout) {
+        return awaitElement(this::pollFirst, timeout.toNanos());
+    }
+
+    @Override
+    public E pollFirst() {
+        int start = this.nextPoll.getAndIncrement();
+        for (int i = 0; i < this.partitions.size(); i++) {
+            E element = this.partitions.get(Math.floorMod(start + i, this.partitions.size())).pollFirst();
+            if (element != null) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the head of the first partition which is not empty, which is not necessarily what the next poll
+     * returns.
+     */
+    @Override
+    public E peekFirst() {
+        for (Queue<E> partition : this.partitions) {
+            E element = partition.peekFirst();
+            if (element != null) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Queue<E> partition : this.partitions) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void pushAll(Collection<? extends E> elements) {
+        List<List<E>> grouped = this.group(elements);
+        for (int i = 0; i < grouped.size(); i++) {
+            if (!grouped.get(i).isEmpty()) {
+                this.partitions.get(i).pushAll(grouped.get(i));
+            }
+        }
+    }
+
+    /**
+     * Adds the elements which fit in their partition, in order, with one round trip per partition.
+     */
+    @Override
+    public int offerAll(Collection<? extends E> elements) {
+        List<List<E>> grouped = this.group(elements);
+        int offered = 0;
+        for (int i = 0; i < grouped.size(); i++) {
+            if (!grouped.get(i).isEmpty()) {
+                offered += this.partitions.get(i).offerAll(grouped.get(i));
+            }
+        }
+        return offered;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        List<E> elements = this.pollBatch(maxElements);
+        target.addAll(elements);
+        return elements.size();
+    }
+
+    /**
+     * Polls up to {@code count} elements, taking from the partitions in turn until enough are found.
+     */
+    @Override
+    public List<E> pollBatch(int count) {
+        List<E> polled = new ArrayList<>();
+        int start = this.nextPoll.getAndIncrement();
+        for (int i = 0; i < this.partitions.size() && polled.size() < count; i++) {
+            polled.addAll(this.partitions.get(Math.floorMod(start + i, this.partitions.size()))
+                    .pollBatch(count - polled.size()));
+        }
+        return polled;
+    }
+
+    /**
+     * Puts elements back at the head of the partitions the partitioner picks for them. With a key partitioner
+     * that is where they were polled from.
+     */
+    @Override
+    public void requeue(Collection<? extends E> elements) {
+        List<List<E>> grouped = this.group(elements);
+        for (int i = 0; i < grouped.size(); i++) {
+            if (!grouped.get(i).isEmpty()) {
+                this.partitions.get(i).requeue(grouped.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!this.ownsPartitions) {
+            return;
+        }
+        for (Queue<E> partition : this.partitions) {
+            if (partition instanceof DistributedQueue<E> queue) {
+                queue.close();
+            }
+        }
+    }
+
+    private Queue<E> partitionOf(E element) {
+        return this.partitions.get(this.partitionIndex(element));
+    }
+
+    private int partitionIndex(E element) {
+        int partition = this.partitioner.partition(element, this.partitions.size());
+        if (partition < 0 || partition >= this.partitions.size()) {
+            throw new IllegalArgumentException("Partitioner returned " + partition + ", which is not between 0 and "
+                    + (this.partitions.size() - 1) + ".");
+        }
+        return partition;
+    }
+
+    private List<List<E>> group(Collection<? extends E> elements) {
+        List<List<E>> grouped = new ArrayList<>(this.partitions.size());
+        for (int i = 0; i < this.partitions.size(); i++) {
+            grouped.add(new ArrayList<>());
+        }
+        for (E element : elements) {
+            grouped.get(this.partitionIndex(element)).add(element);
+        }
+        return grouped;
+    }
+
+    private static <E> E awaitElement(Supplier<E> poll) {
+        return awaitElement(poll, Long.MAX_VALUE);
+    }
+
+    /**
+     * Polls until an element arrives or {@code timeout} passes, and returns null in the latter case.
+     */
+    private static <E> E awaitElement(Supplier<E> poll, long timeout) {
+        long start = System.nanoTime();
+        long backoff = MIN_BACKOFF;
+        while (true) {
+            E element = poll.get();
+            long left = timeout - (System.nanoTime() - start);
+            if (element != null || left <= 0) {
+                return element;
+            }
+            try {
+                // Jittered, so idle consumers do not poll in lockstep.
+                TimeUnit.NANOSECONDS.sleep(
+                        Math.min(left, ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1)));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for an element.", ex);
+            }
+            backoff = Math.min(2 * backoff, MAX_BACKOFF);
+        }
+    }
+
+    /**
+     * Consumer of one stripe of the partitions. Consumers of different stripes do not compete for elements
+     * until one of them runs out of its own. A consumer is meant for one thread.
+     */
+    public final class StripeConsumer {
+
+        private final List<Queue<E>> own;
+        private final List<Queue<E>> others;
+        private int nextOwn;
+
+        private StripeConsumer(int index, int consumers) {
+            List<Queue<E>> own = new ArrayList<>();
+            List<Queue<E>> others = new ArrayList<>();
+            for (int i = 0; i < PartitionedQueue.this.partitions.size(); i++) {
+                (i % consumers == index ? own : others).add(PartitionedQueue.this.partitions.get(i));
+            }
+            this.own = own;
+            this.others = others;
+        }
+
+        public E pollFirst() {
+            E element = this.pollOwn();
+            return element != null ? element : this.steal();
+        }
+
+        public E popFirst() {
+            return awaitElement(this::pollFirst);
+        }
+
+        public List<E> pollBatch(int count) {
+            List<E> polled = new ArrayList<>();
+            for (int i = 0; i < this.own.size() && polled.size() < count; i++) {
+                polled.addAll(this.own.get(this.nextOwn()).pollBatch(count - polled.size()));
+            }
+            if (polled.isEmpty()) {
+                int start = ThreadLocalRandom.current().nextInt(Math.max(1, this.others.size()));
+                for (int i = 0; i < this.others.size() && polled.size() < count; i++) {
+                    polled.addAll(this.others.get((start + i) % this.others.size()).pollBatch(count - polled.size()));
+                }
+            }
+            return polled;
+        }
+
+        private E pollOwn() {
+            for (int i = 0; i < this.own.size(); i++) {
+                E element = this.own.get(this.nextOwn()).pollFirst();
+                if (element != null) {
+                    return element;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Takes from the partitions of other stripes, starting at a random one so thieves spread out.
+         */
+        private E steal() {
+            if (this.others.isEmpty()) {
+                return null;
+            }
+            int start = ThreadLocalRandom.current().nextInt(this.others.size());
+            for (int i = 0; i < this.others.size(); i++) {
+                E element = this.others.get((start + i) % this.others.size()).pollFirst();
+                if (element != null) {
+                    return element;
+                }
+            }
+            return null;
+        }
+
+        private int nextOwn() {
+            int next = this.nextOwn;
+            this.nextOwn = (next + 1) % this.own.size();
+            return next;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.kebritam.redis.distcollection;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Picks the partition of a {@link PartitionedQueue} which an element is pushed to.
+ */
+@FunctionalInterface
+public interface Partitioner<E> {
+
+    int partition(E element, int partitions);
+
+    /**
+     * Spreads elements evenly over the partitions, without any ordering between them.
+     */
+    static <E> Partitioner<E> roundRobin() {
+        AtomicInteger next = new AtomicInteger();
+        return (element, partitions) -> Math.floorMod(next.getAndIncrement(), partitions);
+    }
+
+    /**
+     * Sends elements of the same key to the same partition, so they keep their order.
+     */
+    static <E> Partitioner<E> byKey(Function<? super E, ?> keyOf) {
+        return (element, partitions) -> {
+            int hash = Objects.hashCode(keyOf.apply(element));
+            return Math.floorMod(hash ^ (hash >>> 16), partitions);
+        };
+    }
+}
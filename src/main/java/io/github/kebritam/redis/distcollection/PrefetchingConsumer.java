@@ -0,0 +1,184 @@
+package io.github.kebritam.redis.distcollection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Consumer of a {@link Queue} or {@link Stack} which polls elements in batches of up to {@code prefetchDepth}
+ * into a local buffer and serves polls from memory. Once the buffer drops to {@code lowWaterMark} it is refilled
+ * in the background, so a steady consumer rarely waits for a round trip. Closing puts the elements which were
+ * prefetched but not consumed back with one atomic command.
+ */
+public class PrefetchingConsumer<E> implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrefetchingConsumer.class);
+    private static final Duration POP_SLICE = Duration.ofSeconds(1);
+
+    private final IntFunction<List<E>> pollBatch;
+    private final Function<Duration, E> popFirst;
+    private final Consumer<List<E>> requeue;
+    private final int prefetchDepth;
+    private final int lowWaterMark;
+    private final ArrayDeque<E> buffer;
+    // Fair, so a blocked pop which takes it again after each slice does not keep close out.
+    private final ReentrantLock refillLock = new ReentrantLock(true);
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final ExecutorService refiller;
+    private volatile boolean closed;
+
+    public PrefetchingConsumer(Queue<E> queue) {
+        this(queue, 256, 64);
+    }
+
+    public PrefetchingConsumer(Queue<E> queue, int prefetchDepth, int lowWaterMark) {
+        this(queue::pollBatch, queue::popFirst, queue::requeue, prefetchDepth, lowWaterMark);
+    }
+
+    public PrefetchingConsumer(Stack<E> stack) {
+        this(stack, 256, 64);
+    }
+
+    public PrefetchingConsumer(Stack<E> stack, int prefetchDepth, int lowWaterMark) {
+        this(stack::pollBatch, stack::popFirst, stack::requeue, prefetchDepth, lowWaterMark);
+    }
+
+    private PrefetchingConsumer(IntFunction<List<E>> pollBatch, Function<Duration, E> popFirst,
+                                Consumer<List<E>> requeue, int prefetchDepth, int lowWaterMark) {
+        if (prefetchDepth <= 0 || lowWaterMark < 0 || lowWaterMark >= prefetchDepth) {
+            throw new IllegalArgumentException("Prefetch depth must be positive and above the low-water mark.");
+        }
+        this.pollBatch = pollBatch;
+        this.popFirst = popFirst;
+        this.requeue = requeue;
+        this.prefetchDepth = prefetchDepth;
+        this.lowWaterMark = lowWaterMark;
+        this.buffer = new ArrayDeque<>(prefetchDepth);
+        this.refiller = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().daemon().name("prefetching-consumer-refill").factory());
+    }
+
+    /**
+     * Returns the next element, or null if the buffer and the collection are empty.
+     */
+    public E pollFirst() {
+        if (this.closed) {
+            throw new IllegalStateException("Consumer is closed.");
+        }
+        E element = this.takeBuffered();
+        if (element == null) {
+            this.refill();
+            element = this.takeBuffered();
+        }
+        this.refillInBackground();
+        return element;
+    }
+
+    /**
+     * Returns the next element, and blocks until there is one if the buffer and the collection are empty. It blocks
+     * in slices of {@code POP_SLICE}, and refills wait while a slice runs, so a refill can not take the element it
+     * waits for. {@link #close} gets in between two slices, after which it throws.
+     */
+    public E popFirst() {
+        E element = this.pollFirst();
+        while (element == null) {
+            this.refillLock.lock();
+            try {
+                if (this.closed) {
+                    throw new IllegalStateException("Consumer is closed.");
+                }
+                element = this.takeBuffered();
+                if (element == null) {
+                    element = this.popFirst.apply(POP_SLICE);
+                }
+            } finally {
+                this.refillLock.unlock();
+            }
+        }
+        return element;
+    }
+
+    public int buffered() {
+        synchronized (this.buffer) {
+            return this.buffer.size();
+        }
+    }
+
+    private E takeBuffered() {
+        synchronized (this.buffer) {
+            return this.buffer.pollFirst();
+        }
+    }
+
+    private void refillInBackground() {
+        if (this.buffered() <= this.lowWaterMark && !this.closed && this.refilling.compareAndSet(false, true)) {
+            this.refiller.execute(() -> {
+                try {
+                    this.refill();
+                } catch (RuntimeException ex) {
+                    LOGGER.warn("Could not prefetch elements.", ex);
+                } finally {
+                    this.refilling.set(false);
+                }
+            });
+        }
+    }
+
+    private void refill() {
+        this.refillLock.lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            int missing = this.prefetchDepth - this.buffered();
+            if (missing <= 0) {
+                return;
+            }
+            List<E> fetched = this.pollBatch.apply(missing);
+            synchronized (this.buffer) {
+                this.buffer.addAll(fetched);
+            }
+        } finally {
+            this.refillLock.unlock();
+        }
+    }
+
+    /**
+     * Stops prefetching, and puts the elements which were prefetched but not consumed back into the collection.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.refiller.shutdown();
+        try {
+            this.refiller.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<E> unconsumed;
+        // A refill in flight adds what it fetched before the buffer is emptied.
+        this.refillLock.lock();
+        try {
+            synchronized (this.buffer) {
+                unconsumed = new ArrayList<>(this.buffer);
+                this.buffer.clear();
+            }
+        } finally {
+            this.refillLock.unlock();
+        }
+        this.requeue.accept(unconsumed);
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.kebritam.redis.distcollection;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded ring buffer where many threads offer without locking and one thread at a time drains. Each slot has a
+ * sequence which tells whether it is free for the producer of a position or filled for its consumer, so producers
+ * only race on claiming a position.
+ */
+final class RingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    RingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30.");
+        }
+        // A power of two, so positions map to slots with a mask. With one slot a filled slot would look free for
+        // the next lap, so there are at least two.
+        this.capacity = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.elements = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    boolean offer(E element) {
+        long position = this.tail.get();
+        while (true) {
+            int index = (int) position & this.mask;
+            long sequence = this.sequences.get(index);
+            if (sequence == position) {
+                long witness = this.tail.compareAndExchange(position, position + 1);
+                if (witness == position) {
+                    this.elements.set(index, element);
+                    this.sequences.set(index, position + 1);
+                    return true;
+                }
+                position = witness;
+            } else if (sequence < position) {
+                // The slot still holds the element of the previous lap.
+                return false;
+            } else {
+                position = this.tail.get();
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code max} elements to {@code target} and returns how many were moved. Stops early at a
+     * position which is claimed but not filled yet. Callers must not drain concurrently.
+     */
+    int drainTo(List<E> target, int max) {
+        long position = this.head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & this.mask;
+            if (this.sequences.get(index) != position + 1) {
+                break;
+            }
+            target.add(this.elements.get(index));
+            this.elements.set(index, null);
+            this.sequences.set(index, position + this.capacity);
+            ++position;
+            ++drained;
+        }
+        this.head.set(position);
+        return drained;
+    }
+
+    /**
+     * Returns the positions claimed so far, which the head passes once everything offered until now is drained.
+     */
+    long claimed() {
+        return this.tail.get();
+    }
+
+    long drained() {
+        return this.head.get();
+    }
+
+    int size() {
+        return (int) Math.max(0, this.tail.get() - this.head.get());
+    }
+
+    int capacity() {
+        return this.capacity;
+    }
+}
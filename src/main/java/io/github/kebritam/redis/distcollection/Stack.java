@@ -1,5 +1,9 @@
 package io.github.kebritam.redis.distcollection;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
 public interface Stack<E> {
 
     void pushFirst(E e);
@@ -8,10 +12,42 @@ public interface Stack<E> {
 
     E popFirst();
 
+    /**
+     * Like {@link #popFirst}, but gives up after {@code timeout} and returns null.
+     */
+    E popFirst(Duration timeout);
+
     E pollFirst();
 
     E peekFirst();
 
     long size();
 
+    /**
+     * Like {@link #pushFirst} for every element, in order, with one round trip.
+     */
+    void pushAll(Collection<? extends E> elements);
+
+    /**
+     * Adds the elements which fit, in order, with one round trip, and returns how many were added.
+     */
+    int offerAll(Collection<? extends E> elements);
+
+    /**
+     * Polls up to {@code maxElements} elements into {@code target} with one round trip, and returns how many
+     * were moved.
+     */
+    int drainTo(Collection<? super E> target, int maxElements);
+
+    /**
+     * Polls up to {@code count} elements with one round trip, in the order {@link #pollFirst} would return them.
+     */
+    List<E> pollBatch(int count);
+
+    /**
+     * Puts elements taken by {@link #pollBatch} back with one atomic command, so they are the next to be polled,
+     * in the order they were returned. The max size is not applied, as the elements were already counted in it.
+     */
+    void requeue(Collection<? extends E> elements);
+
 }
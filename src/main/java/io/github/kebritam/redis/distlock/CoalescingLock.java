@@ -0,0 +1,225 @@
+package io.github.kebritam.redis.distlock;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Queues the threads of one JVM on a fair local lock in front of a distributed lock, so only the head of the
+ * queue talks to Redis. When a holder releases while other local threads wait, the distributed lock is handed
+ * to the next one without a round trip as long as its lease is still valid, and extended if the next holder
+ * asks for more time than is left. After {@code maxLocalHandoffs} handoffs in a row, the lock is released in
+ * Redis, so other nodes get their turn. Share one instance among all threads which use the lock.
+ */
+public class CoalescingLock implements DistributedLock {
+
+    private static final double CLOCK_DRIFT_FACTOR = 0.01;
+    private static final long CLOCK_DRIFT_MILLIS = 2;
+
+    private final DistributedLock delegate;
+    private final int maxLocalHandoffs;
+    private final ReentrantLock localLock = new ReentrantLock(true);
+
+    // Guarded by localLock.
+    private boolean held;
+    private boolean watched;
+    private long validUntil;
+    private int handoffs;
+
+    public CoalescingLock(DistributedLock delegate) {
+        this(delegate, 16);
+    }
+
+    public CoalescingLock(DistributedLock delegate, int maxLocalHandoffs) {
+        this.delegate = delegate;
+        this.maxLocalHandoffs = maxLocalHandoffs;
+    }
+
+    @Override
+    public boolean lock(long lockExpireTimeMillis) {
+        if (!this.tryLockLocal()) {
+            return false;
+        }
+        return this.lockDistributed(lockExpireTimeMillis);
+    }
+
+    @Override
+    public boolean lock(long lockExpireTimeMillis, Duration maxWait) {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        boolean interrupted = false;
+        boolean locked;
+        while (true) {
+            try {
+                locked = this.localLock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (!locked) {
+            this.releaseAbandonedHandoff();
+            return false;
+        }
+
+        if (this.held && !this.watched && this.tryHandoff(lockExpireTimeMillis)) {
+            return true;
+        }
+        this.releaseDistributed();
+        long start = System.nanoTime();
+        if (this.delegate.lock(lockExpireTimeMillis, Duration.ofNanos(Math.max(0, deadline - start)))) {
+            this.acquired(start, lockExpireTimeMillis, false);
+            return true;
+        }
+        this.localLock.unlock();
+        return false;
+    }
+
+    @Override
+    public void lockInterruptibly(long lockExpireTimeMillis) throws InterruptedException {
+        try {
+            this.localLock.lockInterruptibly();
+        } catch (InterruptedException ex) {
+            this.releaseAbandonedHandoff();
+            throw ex;
+        }
+        if (this.held && !this.watched && this.tryHandoff(lockExpireTimeMillis)) {
+            return;
+        }
+        this.releaseDistributed();
+        try {
+            long start = System.nanoTime();
+            this.delegate.lockInterruptibly(lockExpireTimeMillis);
+            this.acquired(start, lockExpireTimeMillis, false);
+        } catch (InterruptedException ex) {
+            this.localLock.unlock();
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean lock() {
+        if (!this.tryLockLocal()) {
+            return false;
+        }
+        if (this.held && this.watched) {
+            ++this.handoffs;
+            return true;
+        }
+        this.releaseDistributed();
+        if (this.delegate.lock()) {
+            this.acquired(System.nanoTime(), 0, true);
+            return true;
+        }
+        this.localLock.unlock();
+        return false;
+    }
+
+    @Override
+    public boolean extend(long lockExpireTimeMillis) {
+        if (!this.localLock.isHeldByCurrentThread() || !this.held) {
+            return false;
+        }
+        long start = System.nanoTime();
+        if (this.delegate.extend(lockExpireTimeMillis)) {
+            this.validUntil = validUntil(start, lockExpireTimeMillis);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void release() {
+        if (!this.localLock.isHeldByCurrentThread()) {
+            return;
+        }
+        boolean handOff = this.localLock.getHoldCount() > 1
+                || (this.localLock.hasQueuedThreads() && this.handoffs < this.maxLocalHandoffs);
+        if (!handOff) {
+            this.releaseDistributed();
+        }
+        this.localLock.unlock();
+    }
+
+    /**
+     * Takes the local lock if it is free and nobody queues for it. Unlike {@code tryLock()}, the timed form honors
+     * the fair queue, so it does not take a handoff meant for a waiter.
+     */
+    private boolean tryLockLocal() {
+        try {
+            return this.localLock.tryLock(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean lockDistributed(long lockExpireTimeMillis) {
+        if (this.held && !this.watched && this.tryHandoff(lockExpireTimeMillis)) {
+            return true;
+        }
+        this.releaseDistributed();
+        long start = System.nanoTime();
+        if (this.delegate.lock(lockExpireTimeMillis)) {
+            this.acquired(start, lockExpireTimeMillis, false);
+            return true;
+        }
+        this.localLock.unlock();
+        return false;
+    }
+
+    /**
+     * Takes over the distributed lock of the previous local holder, extending it if less than the requested
+     * time is left. Must be called while holding the local lock.
+     */
+    private boolean tryHandoff(long lockExpireTimeMillis) {
+        long now = System.nanoTime();
+        if (this.validUntil - now >= TimeUnit.MILLISECONDS.toNanos(lockExpireTimeMillis)) {
+            ++this.handoffs;
+            return true;
+        }
+        if (this.validUntil - now > 0 && this.delegate.extend(lockExpireTimeMillis)) {
+            this.validUntil = validUntil(now, lockExpireTimeMillis);
+            ++this.handoffs;
+            return true;
+        }
+        return false;
+    }
+
+    private void acquired(long start, long lockExpireTimeMillis, boolean watched) {
+        this.held = true;
+        this.watched = watched;
+        this.validUntil = watched ? start : validUntil(start, lockExpireTimeMillis);
+        this.handoffs = 0;
+    }
+
+    private void releaseDistributed() {
+        if (this.held) {
+            this.held = false;
+            this.delegate.release();
+        }
+    }
+
+    /**
+     * A waiter which was handed the lock may give up before it gets the local lock. Releases the distributed
+     * lock then, unless another local thread took it over.
+     */
+    private void releaseAbandonedHandoff() {
+        if (this.localLock.tryLock()) {
+            try {
+                if (!this.localLock.hasQueuedThreads()) {
+                    this.releaseDistributed();
+                }
+            } finally {
+                this.localLock.unlock();
+            }
+        }
+    }
+
+    private static long validUntil(long start, long lockExpireTimeMillis) {
+        long drift = (long) (lockExpireTimeMillis * CLOCK_DRIFT_FACTOR) + CLOCK_DRIFT_MILLIS;
+        return start + TimeUnit.MILLISECONDS.toNanos(lockExpireTimeMillis - drift);
+    }
+}
@@ -1,7 +1,25 @@
 package io.github.kebritam.redis.distlock;
 
+import java.time.Duration;
+
 public interface DistributedLock {
     boolean lock(long lockExpireTimeMillis);
 
+    /**
+     * Waits up to {@code maxWait} for the lock. Waiters are woken when the lock is released instead of polling
+     * Redis in a loop. An interrupt does not stop the wait, but is kept for the caller.
+     */
+    boolean lock(long lockExpireTimeMillis, Duration maxWait);
+
+    void lockInterruptibly(long lockExpireTimeMillis) throws InterruptedException;
+
+    /**
+     * Acquires the lock with a short lease which a shared watchdog extends in the background until
+     * {@link #release()} is called, so the lock outlives long jobs but expires soon after its holder dies.
+     */
+    boolean lock();
+
+    boolean extend(long lockExpireTimeMillis);
+
     void release();
 }
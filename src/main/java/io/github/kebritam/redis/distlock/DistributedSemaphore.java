@@ -0,0 +1,13 @@
+package io.github.kebritam.redis.distlock;
+
+import java.time.Duration;
+
+public interface DistributedSemaphore {
+    /**
+     * Takes the permits if they are available. Permits which are not released within {@code lease} are given
+     * back on their own, so a crashed holder does not keep them.
+     */
+    boolean tryAcquire(int permits, Duration lease);
+
+    void release(int permits);
+}
@@ -0,0 +1,129 @@
+package io.github.kebritam.redis.distlock;
+
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock kept in a Redis hash with a hold count per owner, so an owner can take it again while holding it. The
+ * owner is the lock instance together with the calling thread, so threads sharing an instance exclude each other
+ * like they do with a {@link java.util.concurrent.locks.ReentrantLock}. Every operation is one function call per
+ * node, and with more than one node the lock is held when a quorum of them granted it. Views on the same hash
+ * share one lease map, since their holds are counted together per owner and one lease covers all of them.
+ */
+class HashLock implements DistributedLock {
+
+    private final LockNodes nodes;
+    private final String lockName;
+    private final String acquireFunction;
+    private final String instanceToken;
+    private final long watchdogLease;
+    private final ConcurrentHashMap<String, LockWatchdog.Lease> leases;
+
+    HashLock(LockNodes nodes, String lockName, String acquireFunction, String instanceToken, Duration watchdogLease,
+             ConcurrentHashMap<String, LockWatchdog.Lease> leases) {
+        this.nodes = nodes;
+        this.lockName = lockName;
+        this.acquireFunction = acquireFunction;
+        this.instanceToken = instanceToken;
+        this.watchdogLease = watchdogLease.toMillis();
+        this.leases = leases;
+    }
+
+    @Override
+    public boolean lock(long lockExpireTimeMillis) {
+        String owner = this.owner();
+        long startTime = System.nanoTime();
+        Set<Integer> granted = ConcurrentHashMap.newKeySet();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        int successCount = this.nodes.callAll((node, jedis) -> {
+            boolean acquired = (Long) jedis.fcall(this.acquireFunction,
+                    List.of(this.lockName), List.of(owner, String.valueOf(lockExpireTimeMillis))) == 1;
+            if (acquired) {
+                granted.add(node);
+                // Undo a grant which came after the attempt was given up. Removing claims the undo, so it runs once.
+                if (abandoned.get() && granted.remove(node)) {
+                    this.releaseOnNode(jedis, owner);
+                }
+            }
+            return acquired;
+        }, this.nodes.quorum());
+
+        if (successCount >= this.nodes.quorum() && this.nodes.isValid(startTime, lockExpireTimeMillis)) {
+            return true;
+        }
+        abandoned.set(true);
+        List<Integer> undo = new ArrayList<>();
+        for (int node : List.copyOf(granted)) {
+            if (granted.remove(node)) {
+                undo.add(node);
+            }
+        }
+        this.nodes.callEach(undo, (node, jedis) -> this.releaseOnNode(jedis, owner) >= 0);
+        return false;
+    }
+
+    @Override
+    public boolean lock(long lockExpireTimeMillis, Duration maxWait) {
+        return LockNotifier.INSTANCE.await(() -> this.lock(lockExpireTimeMillis),
+                this.lockName, this.nodes.addresses(), maxWait.toNanos());
+    }
+
+    @Override
+    public void lockInterruptibly(long lockExpireTimeMillis) throws InterruptedException {
+        LockNotifier.INSTANCE.awaitInterruptibly(() -> this.lock(lockExpireTimeMillis), this.lockName, this.nodes.addresses());
+    }
+
+    @Override
+    public boolean lock() {
+        if (!this.lock(this.watchdogLease)) {
+            return false;
+        }
+        this.leases.computeIfAbsent(this.owner(), owner -> LockWatchdog.INSTANCE.watch(
+                this.lockName, owner, this.watchdogLease, this.nodes.addresses(), this.nodes.quorum()));
+        return true;
+    }
+
+    @Override
+    public boolean extend(long lockExpireTimeMillis) {
+        String owner = this.owner();
+        long startTime = System.nanoTime();
+        int successCount = this.nodes.callAll((node, jedis) -> {
+            List<?> extended = (List<?>) jedis.fcall("extend_locks",
+                    List.of(this.lockName), List.of(owner, String.valueOf(lockExpireTimeMillis)));
+            return (Long) extended.get(0) == 1;
+        }, this.nodes.quorum());
+        return successCount >= this.nodes.quorum() && this.nodes.isValid(startTime, lockExpireTimeMillis);
+    }
+
+    /**
+     * Gives up one hold of the calling thread. The lock is free for others once every hold is given up.
+     */
+    @Override
+    public void release() {
+        String owner = this.owner();
+        AtomicLong holdsLeft = new AtomicLong(-1);
+        this.nodes.callEach((node, jedis) -> {
+            holdsLeft.accumulateAndGet(this.releaseOnNode(jedis, owner), Math::max);
+            return true;
+        });
+
+        if (holdsLeft.get() <= 0) {
+            LockWatchdog.INSTANCE.unwatch(this.leases.remove(owner));
+        }
+    }
+
+    private long releaseOnNode(Jedis jedis, String owner) {
+        return (Long) jedis.fcall("release_hash_lock", List.of(this.lockName), List.of(owner));
+    }
+
+    private String owner() {
+        return this.instanceToken + ":" + Thread.currentThread().threadId();
+    }
+}
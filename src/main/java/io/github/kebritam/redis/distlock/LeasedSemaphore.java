@@ -0,0 +1,252 @@
+package io.github.kebritam.redis.distlock;
+
+import io.github.kebritam.redis.common.RedisHelpers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Semaphore whose permits are leases in a ZSET scored by expiry, so permits of crashed holders come back when
+ * their lease ends. Released permits are kept locally for {@code permitCacheTime} and reused by the next acquire
+ * whose lease fits in what is left of theirs, so a stream of short tasks costs one round trip per cache time
+ * instead of an acquire and a release per task. Permits still cached after that are given back in the background.
+ */
+public final class LeasedSemaphore implements DistributedSemaphore, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeasedSemaphore.class);
+
+    private final JedisPooled jedis;
+    private final List<String> keys;
+    private final int maxPermits;
+    private final long permitCacheTime;
+    private final List<Lease> leases = new ArrayList<>();
+    // Permits still held on leases which expired, and which Redis took back already. Guarded by the leases.
+    private int lapsed;
+    private final ScheduledExecutorService releaseFlusher;
+
+    public LeasedSemaphore(String host, int port, String semaphoreName, int maxPermits) {
+        this(host, port, semaphoreName, maxPermits, Duration.ofMillis(100));
+    }
+
+    public LeasedSemaphore(String host, int port, String semaphoreName, int maxPermits, Duration permitCacheTime) {
+        this.jedis = new JedisPooled(new HostAndPort(host, port), DefaultJedisClientConfig.builder().build());
+        this.keys = List.of("semaphore:{" + semaphoreName + "}", "semaphore:{" + semaphoreName + "}:permits");
+        this.maxPermits = maxPermits;
+        this.permitCacheTime = permitCacheTime.toNanos();
+
+        byte[] luaScript = RedisHelpers.getLuaScript(Path.of("src/main/resources/lua/distlock.lua"));
+        this.jedis.functionLoadReplace(luaScript);
+
+        if (this.permitCacheTime > 0) {
+            this.releaseFlusher = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().daemon().name("distributed-semaphore-release-flusher").factory());
+            this.releaseFlusher.scheduleWithFixedDelay(this::flushQuietly,
+                    this.permitCacheTime, this.permitCacheTime, TimeUnit.NANOSECONDS);
+        } else {
+            // Released permits are given back right away, so there is nothing to flush.
+            this.releaseFlusher = null;
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(int permits, Duration lease) {
+        if (permits <= 0 || permits > this.maxPermits) {
+            throw new IllegalArgumentException("Permits must be between 1 and " + this.maxPermits + ".");
+        }
+
+        List<String> giveBack = new ArrayList<>();
+        List<Lease> cachedLeases;
+        long now = System.nanoTime();
+        synchronized (this.leases) {
+            for (Lease cached : this.leases) {
+                if (cached.cached >= permits && cached.expiresAt - now >= lease.toNanos()) {
+                    cached.cached -= permits;
+                    cached.held += permits;
+                    return true;
+                }
+            }
+            // The cached permits are not enough, so give them back in the same call, as they may be what is missing.
+            cachedLeases = List.copyOf(this.leases);
+            this.takeCached(giveBack, true);
+        }
+
+        String leaseId = UUID.randomUUID().toString();
+        List<String> args = new ArrayList<>(List.of(String.valueOf(this.maxPermits), String.valueOf(permits),
+                String.valueOf(lease.toMillis()), leaseId));
+        args.addAll(giveBack);
+        long start = System.nanoTime();
+        long acquired;
+        try {
+            acquired = (Long) this.jedis.fcall("semaphore_acquire", this.keys, args);
+        } catch (RuntimeException ex) {
+            this.restoreCached(cachedLeases, giveBack);
+            throw ex;
+        }
+        if (acquired != 1) {
+            return false;
+        }
+
+        synchronized (this.leases) {
+            this.leases.add(new Lease(leaseId, start + lease.toNanos(), permits));
+        }
+        return true;
+    }
+
+    @Override
+    public void release(int permits) {
+        List<String> giveBack = new ArrayList<>();
+        synchronized (this.leases) {
+            long now = System.nanoTime();
+            this.dropExpired(now);
+            if (this.lapsed + this.leases.stream().mapToInt(lease -> lease.held).sum() < permits) {
+                throw new IllegalStateException("Released more permits than are held.");
+            }
+
+            // Permits of expired leases free nothing anymore, and are the shortest, so they go first.
+            int left = permits - Math.min(permits, this.lapsed);
+            this.lapsed -= permits - left;
+            // Release the shortest leases, so the holders left are backed by the longest ones. A holder does not
+            // tell which lease it took, and any of them still fits in the longest leases.
+            this.leases.sort(Comparator.comparingLong((Lease lease) -> lease.expiresAt));
+            for (Lease lease : this.leases) {
+                int released = Math.min(left, lease.held);
+                if (released > 0) {
+                    lease.held -= released;
+                    lease.cached += released;
+                    lease.cachedAt = now;
+                    left -= released;
+                }
+            }
+            if (this.permitCacheTime <= 0) {
+                this.takeCached(giveBack, true);
+            }
+        }
+        this.giveBack(giveBack);
+    }
+
+    public void flush() {
+        List<String> giveBack = new ArrayList<>();
+        synchronized (this.leases) {
+            this.takeCached(giveBack, false);
+        }
+        this.giveBack(giveBack);
+    }
+
+    /**
+     * Moves the cached permits to {@code giveBack}, or only those cached longer than the cache time unless
+     * {@code all} is set, and forgets leases which hold nothing anymore. Must be called while holding the lock
+     * on the leases.
+     */
+    private void takeCached(List<String> giveBack, boolean all) {
+        long now = System.nanoTime();
+        this.dropExpired(now);
+        Iterator<Lease> iterator = this.leases.iterator();
+        while (iterator.hasNext()) {
+            Lease lease = iterator.next();
+            if (lease.cached > 0 && (all || now - lease.cachedAt >= this.permitCacheTime)) {
+                giveBack.add(lease.id);
+                giveBack.add(String.valueOf(lease.cached));
+                lease.cached = 0;
+            }
+            if (lease.held == 0 && lease.cached == 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Forgets expired leases, as Redis already took their permits back, and only counts what they still held.
+     * Must be called while holding the lock on the leases.
+     */
+    private void dropExpired(long now) {
+        Iterator<Lease> iterator = this.leases.iterator();
+        while (iterator.hasNext()) {
+            Lease lease = iterator.next();
+            if (lease.expiresAt - now <= 0) {
+                this.lapsed += lease.held;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Puts permits taken by {@link #takeCached} back into the cache of their leases, after the call which was to
+     * give them back failed. They are then given back by a later acquire or flush instead of leaking until their
+     * lease ends.
+     */
+    private void restoreCached(List<Lease> cachedLeases, List<String> giveBack) {
+        synchronized (this.leases) {
+            long now = System.nanoTime();
+            for (int i = 0; i < giveBack.size(); i += 2) {
+                for (Lease lease : cachedLeases) {
+                    if (lease.id.equals(giveBack.get(i)) && lease.expiresAt - now > 0) {
+                        lease.cached += Integer.parseInt(giveBack.get(i + 1));
+                        if (!this.leases.contains(lease)) {
+                            this.leases.add(lease);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void giveBack(List<String> giveBack) {
+        if (!giveBack.isEmpty()) {
+            this.jedis.fcall("semaphore_release", this.keys, giveBack);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            this.flush();
+        } catch (JedisException ex) {
+            LOGGER.warn("Could not give cached semaphore permits back.", ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (this.releaseFlusher != null) {
+            this.releaseFlusher.shutdown();
+            try {
+                this.releaseFlusher.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<String> giveBack = new ArrayList<>();
+        synchronized (this.leases) {
+            this.takeCached(giveBack, true);
+        }
+        this.giveBack(giveBack);
+        this.jedis.close();
+    }
+
+    private static final class Lease {
+        private final String id;
+        private final long expiresAt;
+        private int held;
+        private int cached;
+        private long cachedAt;
+
+        private Lease(String id, long expiresAt, int held) {
+            this.id = id;
+            this.expiresAt = expiresAt;
+            this.held = held;
+        }
+    }
+}
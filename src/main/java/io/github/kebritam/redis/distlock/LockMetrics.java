@@ -0,0 +1,35 @@
+package io.github.kebritam.redis.distlock;
+
+import redis.clients.jedis.HostAndPort;
+
+/**
+ * Receives the acquisitions, releases and node round trips of {@link LockSingleInstance} and {@link RedLock}.
+ * Methods are called on the locking path, so implementations should be cheap and should not allocate.
+ */
+public interface LockMetrics {
+
+    LockMetrics NOOP = new LockMetrics() {
+    };
+
+    /**
+     * Called once per lock call with the time the caller spent in it, including any waiting for the lock.
+     */
+    default void recordAcquire(String lockName, boolean acquired, long waitNanos) {
+    }
+
+    /**
+     * Called when a held lock is released. {@code expired} tells that the lock had already expired, so another
+     * client may have held it too.
+     */
+    default void recordRelease(String lockName, long holdNanos, boolean expired) {
+    }
+
+    default void recordNodeRoundTrip(HostAndPort node, long nanos, boolean succeeded) {
+    }
+
+    /**
+     * Called when the watchdog could not extend a lease before it expired.
+     */
+    default void recordLeaseLost(String lockName) {
+    }
+}
@@ -0,0 +1,173 @@
+package io.github.kebritam.redis.distlock;
+
+import io.github.kebritam.redis.common.RedisHelpers;
+import redis.clients.jedis.*;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * The Redis nodes of a lock, which are called concurrently on virtual threads. Each node has {@code nodeTimeout}
+ * to answer, and a node which fails or times out counts as a refusal. Nodes whose circuit breaker is open count
+ * as a refusal right away, so a degraded minority does not slow calls down. A single node is the single instance
+ * mode, and more nodes are the Redlock quorum mode.
+ */
+final class LockNodes {
+
+    static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(2);
+
+    private static final ExecutorService NODE_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final double CLOCK_DRIFT_FACTOR = 0.01;
+    private static final long CLOCK_DRIFT_MILLIS = 2;
+
+    private final List<HostAndPort> addresses;
+    private final List<JedisPool> pools;
+    private final List<NodeHealth> health;
+    private final long nodeTimeout;
+    private final LockMetrics metrics;
+
+    LockNodes(Set<HostAndPort> nodes, Duration nodeTimeout) {
+        this(nodes, nodeTimeout, LockMetrics.NOOP);
+    }
+
+    LockNodes(Set<HostAndPort> nodes, Duration nodeTimeout, LockMetrics metrics) {
+        this.addresses = List.copyOf(nodes);
+        this.pools = new ArrayList<>();
+        this.health = this.addresses.stream().map(address -> new NodeHealth()).toList();
+        this.nodeTimeout = nodeTimeout.toNanos();
+        this.metrics = metrics;
+
+        byte[] luaScript = RedisHelpers.getLuaScript(Path.of("src/main/resources/lua/distlock.lua"));
+        JedisClientConfig clientConfig = DefaultJedisClientConfig.builder()
+                .connectionTimeoutMillis((int) nodeTimeout.toMillis())
+                .socketTimeoutMillis((int) nodeTimeout.toMillis())
+                .build();
+        for (HostAndPort hostAndPort : this.addresses) {
+            JedisPoolConfig poolConfig = new JedisPoolConfig();
+            poolConfig.setMaxWait(nodeTimeout);
+            JedisPool pool = new JedisPool(poolConfig, hostAndPort, clientConfig);
+
+            try (Jedis jedis = pool.getResource()) {
+                jedis.functionLoadReplace(luaScript);
+            }
+            this.pools.add(pool);
+        }
+    }
+
+    List<HostAndPort> addresses() {
+        return this.addresses;
+    }
+
+    int size() {
+        return this.pools.size();
+    }
+
+    int quorum() {
+        return this.pools.size() / 2 + 1;
+    }
+
+    /**
+     * Tells whether a lock taken at {@code startTime} is still valid, leaving room for clock drift between the
+     * nodes as in the Redlock algorithm.
+     */
+    boolean isValid(long startTime, long lockExpireTimeMillis) {
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        long drift = (long) (lockExpireTimeMillis * CLOCK_DRIFT_FACTOR) + CLOCK_DRIFT_MILLIS;
+        return lockExpireTimeMillis - elapsed - drift > 0;
+    }
+
+    /**
+     * Calls every node concurrently and waits until {@code needed} of them succeed, until so many fail that
+     * {@code needed} can not be reached anymore, or until the node timeout passes. Returns the successes seen.
+     */
+    int callAll(NodeCall call, int needed) {
+        return this.call(this.allNodes(), call, needed, false);
+    }
+
+    /**
+     * Calls every node concurrently and waits until each of them answered or the node timeout passes. Used for
+     * best-effort cleanup, where a failing node must not stop the others. Nodes with an open breaker are skipped,
+     * and what they hold expires with its lease. Returns the successes seen.
+     */
+    int callEach(NodeCall call) {
+        return this.callEach(this.allNodes(), call);
+    }
+
+    int callEach(List<Integer> nodes, NodeCall call) {
+        return this.call(nodes, call, nodes.size(), true);
+    }
+
+    private List<Integer> allNodes() {
+        List<Integer> nodes = new ArrayList<>(this.pools.size());
+        for (int node = 0; node < this.pools.size(); node++) {
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private int call(List<Integer> nodes, NodeCall call, int needed, boolean waitForAll) {
+        CompletionService<Boolean> results = new ExecutorCompletionService<>(NODE_EXECUTOR);
+        int failures = 0;
+        for (int node : nodes) {
+            NodeHealth health = this.health.get(node);
+            if (!health.allowRequest()) {
+                ++failures;
+                continue;
+            }
+            results.submit(() -> {
+                long start = System.nanoTime();
+                try (Jedis jedis = this.pools.get(node).getResource()) {
+                    boolean result = call.apply(node, jedis);
+                    long latency = System.nanoTime() - start;
+                    health.onSuccess(latency, this.nodeTimeout / 2);
+                    this.metrics.recordNodeRoundTrip(this.addresses.get(node), latency, true);
+                    return result;
+                } catch (JedisException ex) {
+                    this.recordFailure(node, start);
+                    return false;
+                } catch (Throwable ex) {
+                    // Still count it, so a failing probe does not leave the breaker half open for good.
+                    this.recordFailure(node, start);
+                    throw ex;
+                }
+            });
+        }
+
+        long deadline = System.nanoTime() + this.nodeTimeout;
+        int successes = 0;
+        try {
+            while (successes < needed && successes + failures < nodes.size()
+                    && (waitForAll || failures <= nodes.size() - needed)) {
+                Future<Boolean> result = results.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (result == null) {
+                    break;
+                }
+                if (result.get()) {
+                    ++successes;
+                } else {
+                    ++failures;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            throw new RuntimeException("Exception occurred when calling redis nodes.", ex.getCause());
+        }
+        return successes;
+    }
+
+    private void recordFailure(int node, long start) {
+        this.health.get(node).onFailure();
+        this.metrics.recordNodeRoundTrip(this.addresses.get(node), System.nanoTime() - start, false);
+    }
+
+    @FunctionalInterface
+    interface NodeCall {
+        boolean apply(int node, Jedis jedis);
+    }
+}
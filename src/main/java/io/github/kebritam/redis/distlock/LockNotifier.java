@@ -0,0 +1,157 @@
+package io.github.kebritam.redis.distlock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Parks threads which wait for a lock until {@code release_lock} publishes that the lock is free. Each node has
+ * one shared pattern subscription for all locks, so a release costs one lock attempt per waiter. Waiters also
+ * retry with a jittered exponential backoff, which covers locks that expire instead of being released and
+ * releases missed while a subscription reconnects.
+ */
+final class LockNotifier {
+
+    static final String CHANNEL_PREFIX = "distlock:released:";
+    static final LockNotifier INSTANCE = new LockNotifier();
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LockNotifier.class);
+    private static final long MIN_BACKOFF = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_BACKOFF = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long RECONNECT_DELAY = TimeUnit.SECONDS.toMillis(1);
+
+    private final ConcurrentHashMap<HostAndPort, Thread> subscribers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Semaphore>> waiters = new ConcurrentHashMap<>();
+
+    private LockNotifier() {
+    }
+
+    /**
+     * Calls {@code attempt} until it succeeds or {@code maxWaitNanos} passes, waiting between the calls until
+     * the lock is released on one of the nodes. An interrupt does not stop the wait, but is kept for the caller.
+     */
+    boolean await(BooleanSupplier attempt, String lockName, List<HostAndPort> nodes, long maxWaitNanos) {
+        return this.await(attempt, List.of(lockName), nodes, maxWaitNanos);
+    }
+
+    /**
+     * Like {@link #await(BooleanSupplier, String, List, long)} for an attempt which needs all the given locks, so
+     * the release of any of them is worth another attempt.
+     */
+    boolean await(BooleanSupplier attempt, Collection<String> lockNames, List<HostAndPort> nodes, long maxWaitNanos) {
+        try {
+            return this.await(attempt, lockNames, nodes, maxWaitNanos, false);
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException("Uninterruptible wait was interrupted.", ex);
+        }
+    }
+
+    void awaitInterruptibly(BooleanSupplier attempt, String lockName, List<HostAndPort> nodes)
+            throws InterruptedException {
+        this.awaitInterruptibly(attempt, List.of(lockName), nodes);
+    }
+
+    void awaitInterruptibly(BooleanSupplier attempt, Collection<String> lockNames, List<HostAndPort> nodes)
+            throws InterruptedException {
+        this.await(attempt, lockNames, nodes, Long.MAX_VALUE, true);
+    }
+
+    private boolean await(BooleanSupplier attempt, Collection<String> lockNames, List<HostAndPort> nodes,
+                          long maxWaitNanos, boolean interruptible) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        for (HostAndPort node : nodes) {
+            this.subscribers.computeIfAbsent(node, this::subscribe);
+        }
+
+        // Register before the first attempt, so a release right after a failed attempt is not missed.
+        Semaphore signal = new Semaphore(0);
+        for (String lockName : lockNames) {
+            this.waiters.compute(lockName, (key, current) -> {
+                Set<Semaphore> set = current == null ? ConcurrentHashMap.newKeySet() : current;
+                set.add(signal);
+                return set;
+            });
+        }
+        boolean interrupted = false;
+        try {
+            long backoff = MIN_BACKOFF;
+            while (true) {
+                if (attempt.getAsBoolean()) {
+                    return true;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+
+                long wait = Math.min(remaining, ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+                boolean released;
+                try {
+                    released = signal.tryAcquire(wait, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException ex) {
+                    if (interruptible) {
+                        throw ex;
+                    }
+                    interrupted = true;
+                    released = false;
+                }
+                signal.drainPermits();
+                backoff = released ? MIN_BACKOFF : Math.min(2 * backoff, MAX_BACKOFF);
+            }
+        } finally {
+            for (String lockName : lockNames) {
+                this.waiters.computeIfPresent(lockName, (key, current) -> {
+                    current.remove(signal);
+                    return current.isEmpty() ? null : current;
+                });
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void released(String lockName) {
+        Set<Semaphore> lockWaiters = this.waiters.get(lockName);
+        if (lockWaiters != null) {
+            for (Semaphore signal : lockWaiters) {
+                signal.release();
+            }
+        }
+    }
+
+    private Thread subscribe(HostAndPort node) {
+        JedisPubSub pubSub = new JedisPubSub() {
+            @Override
+            public void onPMessage(String pattern, String channel, String message) {
+                LockNotifier.this.released(channel.substring(CHANNEL_PREFIX.length()));
+            }
+        };
+        return Thread.ofPlatform().daemon().name("distributed-lock-notifier-" + node).start(() -> {
+            while (true) {
+                try (Jedis jedis = new Jedis(node)) {
+                    jedis.psubscribe(pubSub, CHANNEL_PREFIX + "*");
+                } catch (JedisException ex) {
+                    LOGGER.warn("Lost lock release notifications from {}, waiters fall back to polling.", node, ex);
+                }
+                try {
+                    Thread.sleep(RECONNECT_DELAY);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        });
+    }
+}
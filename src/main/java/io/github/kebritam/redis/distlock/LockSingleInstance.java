@@ -1,5 +1,6 @@
 package io.github.kebritam.redis.distlock;
 
+import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
@@ -8,6 +9,7 @@ import redis.clients.jedis.params.SetParams;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,8 +18,21 @@ public class LockSingleInstance implements DistributedLock {
     private final JedisPool pool;
     private final String lockName;
     private final String clientToken = UUID.randomUUID().toString();
+    private final HostAndPort node;
+    private final long watchdogLease;
+    private final LockMetrics metrics;
+    private volatile long acquiredAt;
+    private volatile LockWatchdog.Lease lease;
 
     public LockSingleInstance(String host, int port, String lockName) {
+        this(host, port, lockName, LockWatchdog.DEFAULT_LEASE);
+    }
+
+    public LockSingleInstance(String host, int port, String lockName, Duration watchdogLease) {
+        this(host, port, lockName, watchdogLease, LockMetrics.NOOP);
+    }
+
+    public LockSingleInstance(String host, int port, String lockName, Duration watchdogLease, LockMetrics metrics) {
         JedisPoolConfig config = new JedisPoolConfig();
         config.setMaxTotal(2);
         config.setMaxIdle(2);
@@ -25,6 +40,9 @@ public class LockSingleInstance implements DistributedLock {
 
         this.pool = new JedisPool(config, host, port);
         this.lockName = lockName;
+        this.node = new HostAndPort(host, port);
+        this.watchdogLease = watchdogLease.toMillis();
+        this.metrics = metrics;
 
         try (Jedis jedis = pool.getResource()) {
             byte[] distLockStr = Files.readAllBytes(Path.of("src/main/resources/lua/distlock.lua"));
@@ -36,17 +54,83 @@ public class LockSingleInstance implements DistributedLock {
 
     @Override
     public boolean lock(long lockExpireTimeMillis) {
+        long start = System.nanoTime();
+        return this.recordAcquire(start, this.tryLock(lockExpireTimeMillis));
+    }
+
+    private boolean tryLock(long lockExpireTimeMillis) {
+        long start = System.nanoTime();
+        boolean succeeded = false;
         try (Jedis jedis = this.pool.getResource()) {
             String result = jedis.set(this.lockName, this.clientToken,
                     SetParams.setParams().nx().px(lockExpireTimeMillis));
+            succeeded = true;
             return "OK".equals(result);
+        } finally {
+            this.metrics.recordNodeRoundTrip(this.node, System.nanoTime() - start, succeeded);
+        }
+    }
+
+    @Override
+    public boolean lock(long lockExpireTimeMillis, Duration maxWait) {
+        long start = System.nanoTime();
+        return this.recordAcquire(start, LockNotifier.INSTANCE.await(() -> this.tryLock(lockExpireTimeMillis),
+                this.lockName, List.of(this.node), maxWait.toNanos()));
+    }
+
+    @Override
+    public void lockInterruptibly(long lockExpireTimeMillis) throws InterruptedException {
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            LockNotifier.INSTANCE.awaitInterruptibly(
+                    () -> this.tryLock(lockExpireTimeMillis), this.lockName, List.of(this.node));
+            acquired = true;
+        } finally {
+            this.recordAcquire(start, acquired);
+        }
+    }
+
+    @Override
+    public boolean lock() {
+        long start = System.nanoTime();
+        if (!this.recordAcquire(start, this.tryLock(this.watchdogLease))) {
+            return false;
+        }
+        this.lease = LockWatchdog.INSTANCE.watch(
+                this.lockName, this.clientToken, this.watchdogLease, List.of(this.node), 1, this.metrics);
+        return true;
+    }
+
+    private boolean recordAcquire(long start, boolean acquired) {
+        long now = System.nanoTime();
+        if (acquired) {
+            this.acquiredAt = now;
+        }
+        this.metrics.recordAcquire(this.lockName, acquired, now - start);
+        return acquired;
+    }
+
+    @Override
+    public boolean extend(long lockExpireTimeMillis) {
+        try (Jedis jedis = this.pool.getResource()) {
+            List<?> extended = (List<?>) jedis.fcall("extend_locks",
+                    List.of(this.lockName), List.of(this.clientToken, String.valueOf(lockExpireTimeMillis)));
+            return (Long) extended.get(0) == 1;
         }
     }
 
     @Override
     public void release() {
+        LockWatchdog.INSTANCE.unwatch(this.lease);
+        this.lease = null;
+        long acquiredAt = this.acquiredAt;
+        this.acquiredAt = 0;
         try (Jedis jedis = this.pool.getResource()) {
-            jedis.fcall("release_lock", List.of(this.lockName), List.of(this.clientToken));
+            long released = (Long) jedis.fcall("release_lock", List.of(this.lockName), List.of(this.clientToken));
+            if (acquiredAt != 0) {
+                this.metrics.recordRelease(this.lockName, System.nanoTime() - acquiredAt, released == 0);
+            }
 
             /*
             I replace the transactional code with a Lua script. It's atomic and faster than transactional.
@@ -0,0 +1,98 @@
+package io.github.kebritam.redis.distlock;
+
+import io.github.kebritam.redis.common.LatencyHistogram;
+import redis.clients.jedis.HostAndPort;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory {@link LockMetrics} which counts acquisitions, failures, expiries and lost leases, and keeps
+ * histograms of acquire latency, hold time and the round trips of each node.
+ */
+public class LockStats implements LockMetrics {
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder leasesLost = new LongAdder();
+    private final LongAdder nodeFailures = new LongAdder();
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+    private final LatencyHistogram holdTimes = new LatencyHistogram();
+    private final ConcurrentHashMap<HostAndPort, LatencyHistogram> nodeRoundTrips = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordAcquire(String lockName, boolean acquired, long waitNanos) {
+        if (acquired) {
+            this.acquired.increment();
+        } else {
+            this.failed.increment();
+        }
+        this.acquireLatency.record(waitNanos);
+    }
+
+    @Override
+    public void recordRelease(String lockName, long holdNanos, boolean expired) {
+        if (expired) {
+            this.expired.increment();
+        }
+        this.holdTimes.record(holdNanos);
+    }
+
+    @Override
+    public void recordNodeRoundTrip(HostAndPort node, long nanos, boolean succeeded) {
+        if (!succeeded) {
+            this.nodeFailures.increment();
+        }
+        this.nodeRoundTrips.computeIfAbsent(node, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    @Override
+    public void recordLeaseLost(String lockName) {
+        this.leasesLost.increment();
+    }
+
+    public long acquired() {
+        return this.acquired.sum();
+    }
+
+    public long failed() {
+        return this.failed.sum();
+    }
+
+    public long expired() {
+        return this.expired.sum();
+    }
+
+    public long leasesLost() {
+        return this.leasesLost.sum();
+    }
+
+    public long nodeFailures() {
+        return this.nodeFailures.sum();
+    }
+
+    public LatencyHistogram acquireLatency() {
+        return this.acquireLatency;
+    }
+
+    public LatencyHistogram holdTimes() {
+        return this.holdTimes;
+    }
+
+    public Map<HostAndPort, LatencyHistogram> nodeRoundTrips() {
+        return this.nodeRoundTrips;
+    }
+
+    public void reset() {
+        this.acquired.reset();
+        this.failed.reset();
+        this.expired.reset();
+        this.leasesLost.reset();
+        this.nodeFailures.reset();
+        this.acquireLatency.reset();
+        this.holdTimes.reset();
+        this.nodeRoundTrips.values().forEach(LatencyHistogram::reset);
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.kebritam.redis.distlock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extends the leases of every watched lock of the JVM from one scheduler thread. Each tick collects the leases
+ * which passed a third of their time and extends them with one function call per node. A lease which could not
+ * be extended by a quorum of its nodes is retried until it expires, and is dropped as lost after that.
+ */
+final class LockWatchdog {
+
+    static final Duration DEFAULT_LEASE = Duration.ofSeconds(30);
+    static final LockWatchdog INSTANCE = new LockWatchdog(Duration.ofMillis(100));
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LockWatchdog.class);
+
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<HostAndPort, JedisPooled> clients = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ticker;
+
+    private LockWatchdog(Duration tick) {
+        this.ticker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("distributed-lock-watchdog").factory());
+        this.ticker.scheduleWithFixedDelay(this::tickQuietly, tick.toNanos(), tick.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    Lease watch(String lockName, String token, long leaseMillis, List<HostAndPort> nodes, int quorum) {
+        return this.watch(lockName, token, leaseMillis, nodes, quorum, LockMetrics.NOOP);
+    }
+
+    Lease watch(String lockName, String token, long leaseMillis, List<HostAndPort> nodes, int quorum,
+                LockMetrics metrics) {
+        Lease lease = new Lease(lockName, token, leaseMillis, nodes, quorum, metrics);
+        this.leases.add(lease);
+        return lease;
+    }
+
+    void unwatch(Lease lease) {
+        if (lease != null) {
+            this.leases.remove(lease);
+        }
+    }
+
+    void tick() {
+        long now = System.nanoTime();
+        Map<HostAndPort, List<Lease>> due = new HashMap<>();
+        for (Lease lease : this.leases) {
+            if (now - lease.extendedAt >= lease.leaseNanos() / 3) {
+                for (HostAndPort node : lease.nodes) {
+                    due.computeIfAbsent(node, key -> new ArrayList<>()).add(lease);
+                }
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Map<Lease, Integer> extensions = new ConcurrentHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            due.forEach((node, nodeLeases) -> executor.execute(() -> this.extendOnNode(node, nodeLeases, extensions)));
+        }
+
+        for (List<Lease> nodeLeases : due.values()) {
+            for (Lease lease : nodeLeases) {
+                if (extensions.getOrDefault(lease, 0) >= lease.quorum) {
+                    lease.extendedAt = now;
+                } else if (now - lease.extendedAt >= lease.leaseNanos() && this.leases.remove(lease)) {
+                    LOGGER.warn("Lost lock {} because its lease could not be extended in time.", lease.lockName);
+                    lease.metrics.recordLeaseLost(lease.lockName);
+                }
+            }
+        }
+    }
+
+    private void extendOnNode(HostAndPort node, List<Lease> nodeLeases, Map<Lease, Integer> extensions) {
+        List<String> keys = new ArrayList<>(nodeLeases.size());
+        List<String> args = new ArrayList<>(2 * nodeLeases.size());
+        for (Lease lease : nodeLeases) {
+            keys.add(lease.lockName);
+            args.add(lease.token);
+            args.add(String.valueOf(lease.leaseMillis));
+        }
+
+        try {
+            JedisPooled client = this.clients.computeIfAbsent(node,
+                    key -> new JedisPooled(key, DefaultJedisClientConfig.builder().build()));
+            List<?> extended = (List<?>) client.fcall("extend_locks", keys, args);
+            for (int i = 0; i < nodeLeases.size(); i++) {
+                if ((Long) extended.get(i) == 1) {
+                    extensions.merge(nodeLeases.get(i), 1, Integer::sum);
+                }
+            }
+        } catch (JedisException ex) {
+            LOGGER.warn("Could not extend leases on {}.", node, ex);
+        }
+    }
+
+    private void tickQuietly() {
+        try {
+            this.tick();
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Could not extend lock leases.", ex);
+        }
+    }
+
+    static final class Lease {
+        private final String lockName;
+        private final String token;
+        private final long leaseMillis;
+        private final List<HostAndPort> nodes;
+        private final int quorum;
+        private final LockMetrics metrics;
+        private volatile long extendedAt = System.nanoTime();
+
+        private Lease(String lockName, String token, long leaseMillis, List<HostAndPort> nodes, int quorum,
+                      LockMetrics metrics) {
+            this.lockName = lockName;
+            this.token = token;
+            this.leaseMillis = leaseMillis;
+            this.nodes = nodes;
+            this.quorum = quorum;
+            this.metrics = metrics;
+        }
+
+        private long leaseNanos() {
+            return TimeUnit.MILLISECONDS.toNanos(this.leaseMillis);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.kebritam.redis.distlock;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Locks many names all-or-nothing with one function call per node. A node either grants every name or none, so
+ * no caller holds some names while waiting for others, and names are always sent in sorted order. With more than
+ * one node the names are held when a quorum of the nodes granted them.
+ */
+public class MultiLock implements DistributedLock {
+
+    private final LockNodes nodes;
+    private final List<String> lockNames;
+    private final long watchdogLease;
+    private volatile String clientToken = UUID.randomUUID().toString();
+    private volatile List<LockWatchdog.Lease> leases = List.of();
+
+    public MultiLock(String host, int port, Collection<String> lockNames) {
+        this(Set.of(new HostAndPort(host, port)), lockNames, LockNodes.DEFAULT_TIMEOUT);
+    }
+
+    public MultiLock(Set<HostAndPort> clusterNodes, Collection<String> lockNames, Duration nodeTimeout) {
+        this(clusterNodes, lockNames, nodeTimeout, LockWatchdog.DEFAULT_LEASE);
+    }
+
+    public MultiLock(Set<HostAndPort> clusterNodes, Collection<String> lockNames, Duration nodeTimeout,
+                     Duration watchdogLease) {
+        if (lockNames.isEmpty()) {
+            throw new IllegalArgumentException("At least one lock name is needed.");
+        }
+        this.nodes = new LockNodes(clusterNodes, nodeTimeout);
+        this.lockNames = List.copyOf(new TreeSet<>(lockNames));
+        this.watchdogLease = watchdogLease.toMillis();
+    }
+
+    @Override
+    public boolean lock(long lockExpireTimeMillis) {
+        // Each attempt has its own token, so cleaning up a failed attempt late can not release a later one.
+        String token = UUID.randomUUID().toString();
+        this.clientToken = token;
+
+        long startTime = System.nanoTime();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        int successCount = this.nodes.callAll((node, jedis) -> {
+            boolean acquired = (Long) jedis.fcall("lock_all",
+                    this.lockNames, List.of(token, String.valueOf(lockExpireTimeMillis))) == 1;
+            if (acquired && abandoned.get()) {
+                this.releaseOnNode(jedis, token);
+            }
+            return acquired;
+        }, this.nodes.quorum());
+
+        if (successCount >= this.nodes.quorum() && this.nodes.isValid(startTime, lockExpireTimeMillis)) {
+            return true;
+        }
+        abandoned.set(true);
+        this.release(token);
+        return false;
+    }
+
+    @Override
+    public boolean lock(long lockExpireTimeMillis, Duration maxWait) {
+        return LockNotifier.INSTANCE.await(() -> this.lock(lockExpireTimeMillis),
+                this.lockNames, this.nodes.addresses(), maxWait.toNanos());
+    }
+
+    @Override
+    public void lockInterruptibly(long lockExpireTimeMillis) throws InterruptedException {
+        LockNotifier.INSTANCE.awaitInterruptibly(() -> this.lock(lockExpireTimeMillis), this.lockNames, this.nodes.addresses());
+    }
+
+    @Override
+    public boolean lock() {
+        if (!this.lock(this.watchdogLease)) {
+            return false;
+        }
+        List<LockWatchdog.Lease> watched = new ArrayList<>(this.lockNames.size());
+        for (String lockName : this.lockNames) {
+            watched.add(LockWatchdog.INSTANCE.watch(
+                    lockName, this.clientToken, this.watchdogLease, this.nodes.addresses(), this.nodes.quorum()));
+        }
+        this.leases = watched;
+        return true;
+    }
+
+    @Override
+    public boolean extend(long lockExpireTimeMillis) {
+        String token = this.clientToken;
+        List<String> args = new ArrayList<>(2 * this.lockNames.size());
+        for (int i = 0; i < this.lockNames.size(); i++) {
+            args.add(token);
+            args.add(String.valueOf(lockExpireTimeMillis));
+        }
+
+        long startTime = System.nanoTime();
+        int successCount = this.nodes.callAll((node, jedis) -> {
+            List<?> extended = (List<?>) jedis.fcall("extend_locks", this.lockNames, args);
+            return extended.stream().allMatch(value -> (Long) value == 1);
+        }, this.nodes.quorum());
+        return successCount >= this.nodes.quorum() && this.nodes.isValid(startTime, lockExpireTimeMillis);
+    }
+
+    @Override
+    public void release() {
+        for (LockWatchdog.Lease lease : this.leases) {
+            LockWatchdog.INSTANCE.unwatch(lease);
+        }
+        this.leases = List.of();
+        this.release(this.clientToken);
+    }
+
+    private void release(String token) {
+        this.nodes.callEach((node, jedis) -> this.releaseOnNode(jedis, token));
+    }
+
+    private boolean releaseOnNode(Jedis jedis, String token) {
+        jedis.fcall("release_all", this.lockNames, List.of(token));
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.kebritam.redis.distlock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker of one Redis node, kept by the {@link LockNodes} which calls it. The node is skipped
+ * after {@code FAILURE_THRESHOLD} failures in a row, or while its latency average is above the slow threshold
+ * of the caller. Once the open time passes, one probe call decides whether it closes again, and every failed
+ * probe doubles the open time.
+ */
+final class NodeHealth {
+
+    private static final double EWMA_WEIGHT = 0.2;
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long MIN_OPEN_TIME = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long MAX_OPEN_TIME = TimeUnit.SECONDS.toNanos(30);
+
+    private enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private State state = State.CLOSED;
+    private double latencyEwma;
+    private int consecutiveFailures;
+    private long openTime = MIN_OPEN_TIME;
+    private long openUntil;
+
+    synchronized boolean allowRequest() {
+        switch (this.state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - this.openUntil >= 0) {
+                    this.state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                // A probe is in flight.
+                return false;
+        }
+    }
+
+    synchronized void onSuccess(long latency, long slowThreshold) {
+        // A probe starts a fresh average, so the latencies which opened the breaker do not keep it open.
+        this.latencyEwma = this.latencyEwma == 0 || this.state == State.HALF_OPEN
+                ? latency
+                : this.latencyEwma + EWMA_WEIGHT * (latency - this.latencyEwma);
+        if (this.latencyEwma > slowThreshold) {
+            this.trip();
+        } else {
+            this.state = State.CLOSED;
+            this.consecutiveFailures = 0;
+            this.openTime = MIN_OPEN_TIME;
+        }
+    }
+
+    synchronized void onFailure() {
+        ++this.consecutiveFailures;
+        if (this.state == State.HALF_OPEN || this.consecutiveFailures >= FAILURE_THRESHOLD) {
+            this.trip();
+        }
+    }
+
+    private void trip() {
+        if (this.state == State.HALF_OPEN) {
+            this.openTime = Math.min(2 * this.openTime, MAX_OPEN_TIME);
+        }
+        this.state = State.OPEN;
+        this.openUntil = System.nanoTime() + this.openTime;
+    }
+}
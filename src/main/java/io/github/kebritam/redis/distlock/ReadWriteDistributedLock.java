@@ -0,0 +1,45 @@
+package io.github.kebritam.redis.distlock;
+
+import redis.clients.jedis.HostAndPort;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pair of reentrant locks on one Redis hash. Any number of readers may hold the read lock together, while the
+ * write lock excludes everyone else. A writer may also take the read lock, but a reader can not upgrade. Readers
+ * share the lease of the key, so a reader which dies without releasing holds it until the longest lease ends.
+ */
+public class ReadWriteDistributedLock {
+
+    private final DistributedLock readLock;
+    private final DistributedLock writeLock;
+
+    public ReadWriteDistributedLock(String host, int port, String lockName) {
+        this(Set.of(new HostAndPort(host, port)), lockName, LockNodes.DEFAULT_TIMEOUT);
+    }
+
+    public ReadWriteDistributedLock(Set<HostAndPort> clusterNodes, String lockName, Duration nodeTimeout) {
+        this(clusterNodes, lockName, nodeTimeout, LockWatchdog.DEFAULT_LEASE);
+    }
+
+    public ReadWriteDistributedLock(Set<HostAndPort> clusterNodes, String lockName, Duration nodeTimeout,
+                                    Duration watchdogLease) {
+        LockNodes nodes = new LockNodes(clusterNodes, nodeTimeout);
+        String instanceToken = UUID.randomUUID().toString();
+        // Both views count the holds of an owner in the same hash field, so they also share its watched lease.
+        ConcurrentHashMap<String, LockWatchdog.Lease> leases = new ConcurrentHashMap<>();
+        this.readLock = new HashLock(nodes, lockName, "read_lock", instanceToken, watchdogLease, leases);
+        this.writeLock = new HashLock(nodes, lockName, "write_lock", instanceToken, watchdogLease, leases);
+    }
+
+    public DistributedLock readLock() {
+        return this.readLock;
+    }
+
+    public DistributedLock writeLock() {
+        return this.writeLock;
+    }
+}
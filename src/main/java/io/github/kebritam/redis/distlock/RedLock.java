@@ -1,70 +1,154 @@
 package io.github.kebritam.redis.distlock;
 
-import io.github.kebritam.redis.common.RedisHelpers;
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPool;
-import redis.clients.jedis.JedisPoolConfig;
 import redis.clients.jedis.params.SetParams;
 
-import java.nio.file.Path;
 import java.time.Duration;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Redlock over independent Redis nodes. Every node is called concurrently on its own virtual thread and has
+ * {@code nodeTimeout} to answer, so acquiring takes as long as the majority-th fastest node instead of the sum
+ * of all nodes. Acquisitions, releases and node round trips are reported to the given {@link LockMetrics}.
+ */
 public class RedLock implements DistributedLock {
 
-    private final Set<JedisPool> jedisPools;
+    private final LockNodes nodes;
     private final String lockName;
-    private final String clientToken = UUID.randomUUID().toString();
+    private final long watchdogLease;
+    private final LockMetrics metrics;
+    private volatile long acquiredAt;
+    private volatile String clientToken = UUID.randomUUID().toString();
+    private volatile LockWatchdog.Lease lease;
 
     public RedLock(Set<HostAndPort> clusterNodes, String lockName, Duration nodeTimeout) {
-        this.lockName = lockName;
-        this.jedisPools = new HashSet<>();
+        this(clusterNodes, lockName, nodeTimeout, LockWatchdog.DEFAULT_LEASE);
+    }
 
-        byte[] luaScript = RedisHelpers.getLuaScript(Path.of("src/main/resources/lua/distlock.lua"));
-        for (HostAndPort hostAndPort : clusterNodes) {
-            JedisPoolConfig poolConfig = new JedisPoolConfig();
-            poolConfig.setMaxWait(nodeTimeout);
-            JedisPool pool = new JedisPool(hostAndPort.getHost(), hostAndPort.getPort());
+    public RedLock(Set<HostAndPort> clusterNodes, String lockName, Duration nodeTimeout, Duration watchdogLease) {
+        this(clusterNodes, lockName, nodeTimeout, watchdogLease, LockMetrics.NOOP);
+    }
 
-            try (Jedis jedis = pool.getResource()) {
-                jedis.functionLoadReplace(luaScript);
-            }
-            this.jedisPools.add(pool);
-        }
+    public RedLock(Set<HostAndPort> clusterNodes, String lockName, Duration nodeTimeout, Duration watchdogLease,
+                   LockMetrics metrics) {
+        this.nodes = new LockNodes(clusterNodes, nodeTimeout, metrics);
+        this.lockName = lockName;
+        this.watchdogLease = watchdogLease.toMillis();
+        this.metrics = metrics;
     }
 
     @Override
     public boolean lock(long lockExpireTimeMillis) {
-        long startTime = System.currentTimeMillis();
-        int successCount = 0;
-        for (JedisPool jedisPool : jedisPools) {
-            try(Jedis jedis = jedisPool.getResource()) {
-                String result = jedis.set(lockName, clientToken,
-                        SetParams.setParams().nx().px(lockExpireTimeMillis));
-
-                if ("OK".equals(result)) {
-                    ++successCount;
-                }
+        long start = System.nanoTime();
+        return this.recordAcquire(start, this.tryLock(lockExpireTimeMillis));
+    }
+
+    private boolean tryLock(long lockExpireTimeMillis) {
+        // Each attempt has its own token, so cleaning up a failed attempt late can not release a later one.
+        String token = UUID.randomUUID().toString();
+        this.clientToken = token;
+
+        long startTime = System.nanoTime();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        int successCount = this.nodes.callAll((node, jedis) -> {
+            boolean acquired = this.setOnNode(jedis, token, lockExpireTimeMillis);
+            if (acquired && abandoned.get()) {
+                this.releaseOnNode(jedis, token);
             }
-        }
+            return acquired;
+        }, this.nodes.quorum());
 
-        if (successCount > jedisPools.size() / 2 && System.currentTimeMillis() - startTime < lockExpireTimeMillis) {
+        if (successCount >= this.nodes.quorum() && this.nodes.isValid(startTime, lockExpireTimeMillis)) {
             return true;
         }
-        this.release();
+        abandoned.set(true);
+        this.release(token);
         return false;
     }
 
+    @Override
+    public boolean lock(long lockExpireTimeMillis, Duration maxWait) {
+        long start = System.nanoTime();
+        return this.recordAcquire(start, LockNotifier.INSTANCE.await(() -> this.tryLock(lockExpireTimeMillis),
+                this.lockName, this.nodes.addresses(), maxWait.toNanos()));
+    }
+
+    @Override
+    public void lockInterruptibly(long lockExpireTimeMillis) throws InterruptedException {
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            LockNotifier.INSTANCE.awaitInterruptibly(
+                    () -> this.tryLock(lockExpireTimeMillis), this.lockName, this.nodes.addresses());
+            acquired = true;
+        } finally {
+            this.recordAcquire(start, acquired);
+        }
+    }
+
+    @Override
+    public boolean lock() {
+        long start = System.nanoTime();
+        if (!this.recordAcquire(start, this.tryLock(this.watchdogLease))) {
+            return false;
+        }
+        this.lease = LockWatchdog.INSTANCE.watch(this.lockName, this.clientToken, this.watchdogLease,
+                this.nodes.addresses(), this.nodes.quorum(), this.metrics);
+        return true;
+    }
+
+    @Override
+    public boolean extend(long lockExpireTimeMillis) {
+        String token = this.clientToken;
+        long startTime = System.nanoTime();
+        int successCount = this.nodes.callAll(
+                (node, jedis) -> this.extendOnNode(jedis, token, lockExpireTimeMillis), this.nodes.quorum());
+        return successCount >= this.nodes.quorum() && this.nodes.isValid(startTime, lockExpireTimeMillis);
+    }
+
     @Override
     public void release() {
-        for (JedisPool pool : jedisPools) {
-            try (Jedis jedis = pool.getResource()) {
-                jedis.fcall("release_lock", List.of(this.lockName), List.of(this.clientToken));
-            }
+        LockWatchdog.INSTANCE.unwatch(this.lease);
+        this.lease = null;
+        long acquiredAt = this.acquiredAt;
+        this.acquiredAt = 0;
+        int released = this.release(this.clientToken);
+        if (acquiredAt != 0) {
+            // Less than a quorum still holding our token means the lock expired while it was held.
+            this.metrics.recordRelease(this.lockName, System.nanoTime() - acquiredAt, released < this.nodes.quorum());
+        }
+    }
+
+    private boolean recordAcquire(long start, boolean acquired) {
+        long now = System.nanoTime();
+        if (acquired) {
+            this.acquiredAt = now;
         }
+        this.metrics.recordAcquire(this.lockName, acquired, now - start);
+        return acquired;
+    }
+
+    private int release(String token) {
+        return this.nodes.callEach((node, jedis) -> this.releaseOnNode(jedis, token));
+    }
+
+    private boolean setOnNode(Jedis jedis, String token, long lockExpireTimeMillis) {
+        String result = jedis.set(this.lockName, token,
+                SetParams.setParams().nx().px(lockExpireTimeMillis));
+        return "OK".equals(result);
+    }
+
+    private boolean extendOnNode(Jedis jedis, String token, long lockExpireTimeMillis) {
+        List<?> extended = (List<?>) jedis.fcall("extend_locks",
+                List.of(this.lockName), List.of(token, String.valueOf(lockExpireTimeMillis)));
+        return (Long) extended.get(0) == 1;
+    }
+
+    private boolean releaseOnNode(Jedis jedis, String token) {
+        return (Long) jedis.fcall("release_lock", List.of(this.lockName), List.of(token)) == 1;
     }
 }
@@ -0,0 +1,25 @@
+package io.github.kebritam.redis.distlock;
+
+import redis.clients.jedis.HostAndPort;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ReentrantDistributedLock extends HashLock {
+
+    public ReentrantDistributedLock(String host, int port, String lockName) {
+        this(Set.of(new HostAndPort(host, port)), lockName, LockNodes.DEFAULT_TIMEOUT);
+    }
+
+    public ReentrantDistributedLock(Set<HostAndPort> clusterNodes, String lockName, Duration nodeTimeout) {
+        this(clusterNodes, lockName, nodeTimeout, LockWatchdog.DEFAULT_LEASE);
+    }
+
+    public ReentrantDistributedLock(Set<HostAndPort> clusterNodes, String lockName, Duration nodeTimeout,
+                                    Duration watchdogLease) {
+        super(new LockNodes(clusterNodes, nodeTimeout), lockName, "reentrant_lock", UUID.randomUUID().toString(),
+                watchdogLease, new ConcurrentHashMap<>());
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.kebritam.redis.ratelimiter;
+
+public interface ConcurrencyLimiter {
+    String tryAcquire(String token);
+
+    void release(String token, String lease);
+}
@@ -1,29 +1,141 @@
 package io.github.kebritam.redis.ratelimiter;
 
+import io.github.kebritam.redis.common.RedisHelpers;
 import redis.clients.jedis.*;
 
-import java.time.LocalDateTime;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
-public class FixedWindowRateLimiter implements RateLimiter {
+public class FixedWindowRateLimiter implements LeasableRateLimiter, AutoCloseable {
 
-    private final JedisPool pool;
+    private final UnifiedJedis jedis;
     private final int maxUsage;
+    private final long windowLength;
+    private final LocalAggregator aggregator;
+    private final RateLimiterMetrics metrics;
+    private final boolean ownsJedis;
 
     public FixedWindowRateLimiter(String redisAddress, int maxUsage) {
-        this.pool = new JedisPool(HostAndPort.from(redisAddress), DefaultJedisClientConfig.builder().build());
+        this(redisAddress, maxUsage, 60);
+    }
+
+    public FixedWindowRateLimiter(String redisAddress, int maxUsage, int windowLength) {
+        this(redisAddress, maxUsage, windowLength, null);
+    }
+
+    /**
+     * Creates a limiter which admits calls from local counters and syncs them with Redis every {@code syncInterval}
+     * instead of making a round trip per call. It trades slight over-admission for taking Redis off the request path.
+     * Leases are not available in this mode, as they would bypass the local counts.
+     */
+    public FixedWindowRateLimiter(String redisAddress, int maxUsage, int windowLength, Duration syncInterval) {
+        this(redisAddress, maxUsage, windowLength, syncInterval, RateLimiterMetrics.NOOP);
+    }
+
+    /**
+     * Like the other constructors, and reports the latency of every call to Redis to {@code metrics}. Calls
+     * admitted from local counters make no round trip, so they report none.
+     */
+    public FixedWindowRateLimiter(String redisAddress, int maxUsage, int windowLength, Duration syncInterval,
+                                  RateLimiterMetrics metrics) {
+        this(new JedisPooled(HostAndPort.from(redisAddress), DefaultJedisClientConfig.builder().build()),
+                maxUsage, windowLength, syncInterval, metrics, true);
+    }
+
+    /**
+     * Creates a limiter on a client of the caller, which is left open on {@link #close()}.
+     */
+    public FixedWindowRateLimiter(UnifiedJedis jedis, int maxUsage, int windowLength, Duration syncInterval) {
+        this(jedis, maxUsage, windowLength, syncInterval, RateLimiterMetrics.NOOP, false);
+    }
+
+    public FixedWindowRateLimiter(UnifiedJedis jedis, int maxUsage, int windowLength, Duration syncInterval,
+                                  RateLimiterMetrics metrics) {
+        this(jedis, maxUsage, windowLength, syncInterval, metrics, false);
+    }
+
+    private FixedWindowRateLimiter(UnifiedJedis jedis, int maxUsage, int windowLength, Duration syncInterval,
+                                   RateLimiterMetrics metrics, boolean ownsJedis) {
+        this.jedis = jedis;
+        this.ownsJedis = ownsJedis;
+        this.metrics = metrics;
         this.maxUsage = maxUsage;
+        this.windowLength = windowLength * 1_000L;
+
+        byte[] luaScript = RedisHelpers.getLuaScript(Path.of("src/main/resources/lua/ratelimiter.lua"));
+        this.jedis.functionLoadReplace(luaScript);
+        this.aggregator = syncInterval == null
+                ? null
+                : new LocalAggregator(this.jedis, maxUsage, this.windowLength, syncInterval, metrics);
+    }
+
+    @Override
+    public boolean tryAcquire(String token, int permits) {
+        if (this.aggregator != null) {
+            return this.aggregator.tryAcquire(token, permits);
+        }
+        return LeasableRateLimiter.super.tryAcquire(token, permits);
+    }
+
+    @Override
+    public boolean acquire(String token, int permits, Duration maxWait) throws InterruptedException {
+        if (this.aggregator != null) {
+            return this.aggregator.acquire(token, permits, maxWait);
+        }
+        return LeasableRateLimiter.super.acquire(token, permits, maxWait);
+    }
+
+    @Override
+    public Map<String, Boolean> useAll(Collection<String> tokens) {
+        if (this.aggregator != null) {
+            Map<String, Boolean> result = new LinkedHashMap<>();
+            for (String token : tokens) {
+                result.computeIfAbsent(token, this::use);
+            }
+            return result;
+        }
+        return LeasableRateLimiter.super.useAll(tokens);
+    }
+
+    @Override
+    public PermitLease lease(String token, int permits, boolean partial) {
+        this.requireExactMode();
+        long start = System.nanoTime();
+        Object reply = this.jedis.fcall("fixed_window", List.of(RateLimiterKeys.of("fixed", token)), this.arguments(permits, partial));
+        this.metrics.recordRoundTrip(System.nanoTime() - start);
+        return PermitLease.fromReply(reply);
     }
 
     @Override
-    public boolean use(String token) {
-        Response<Long> requestCount;
-        try (Jedis jedis = this.pool.getResource();
-             Pipeline pipe = jedis.pipelined()) {
-            requestCount = pipe.incr(token + ":" + LocalDateTime.now().getMinute());
-            pipe.expire(token, 60);
+    public Map<String, PermitLease> leaseAll(Collection<String> tokens, int permits, boolean partial) {
+        this.requireExactMode();
+        long start = System.nanoTime();
+        Map<String, PermitLease> leases = LimiterCalls.leaseAll(this.jedis, "fixed_window", tokens, key -> List.of(RateLimiterKeys.of("fixed", key)), this.arguments(permits, partial));
+        this.metrics.recordRoundTrip(System.nanoTime() - start);
+        return leases;
+    }
+
+    @Override
+    public void close() {
+        if (this.aggregator != null) {
+            this.aggregator.close();
+        }
+        if (this.ownsJedis) {
+            this.jedis.close();
         }
-        Long count = requestCount.get();
-        return count <= this.maxUsage;
     }
 
+    private void requireExactMode() {
+        if (this.aggregator != null) {
+            throw new UnsupportedOperationException("Leases are not supported when calls are aggregated locally.");
+        }
+    }
+
+    private List<String> arguments(int permits, boolean partial) {
+        return LimiterCalls.windowArguments(this.maxUsage, this.windowLength, permits, partial);
+    }
 }
@@ -0,0 +1,65 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import io.github.kebritam.redis.common.RedisHelpers;
+import redis.clients.jedis.*;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class GcraRateLimiter implements LeasableRateLimiter, AutoCloseable {
+
+    private final UnifiedJedis jedis;
+    private final int maxUsage;
+    private final long windowLength;
+    private final boolean ownsJedis;
+
+    public GcraRateLimiter(String redisAddress, int maxUsage, int windowLength) {
+        this(new JedisPooled(HostAndPort.from(redisAddress), DefaultJedisClientConfig.builder().build()),
+                maxUsage, windowLength, true);
+    }
+
+    /**
+     * Creates a limiter on a client of the caller, which is left open on {@link #close()}.
+     */
+    public GcraRateLimiter(UnifiedJedis jedis, int maxUsage, int windowLength) {
+        this(jedis, maxUsage, windowLength, false);
+    }
+
+    private GcraRateLimiter(UnifiedJedis jedis, int maxUsage, int windowLength, boolean ownsJedis) {
+        this.jedis = jedis;
+        this.ownsJedis = ownsJedis;
+        this.maxUsage = maxUsage;
+        this.windowLength = windowLength * 1_000L;
+
+        byte[] luaScript = RedisHelpers.getLuaScript(Path.of("src/main/resources/lua/ratelimiter.lua"));
+        this.jedis.functionLoadReplace(luaScript);
+    }
+
+    @Override
+    public PermitLease lease(String token, int permits, boolean partial) {
+        // The script keeps only the theoretical arrival time of the token and reads the clock from
+        // the server, so every client shares the same timeline and the decision takes one round trip.
+        return PermitLease.fromReply(this.jedis.fcall(
+                "gcra",
+                List.of(RateLimiterKeys.of("gcra", token)),
+                this.arguments(permits, partial)));
+    }
+
+    @Override
+    public Map<String, PermitLease> leaseAll(Collection<String> tokens, int permits, boolean partial) {
+        return LimiterCalls.leaseAll(this.jedis, "gcra", tokens, key -> List.of(RateLimiterKeys.of("gcra", key)), this.arguments(permits, partial));
+    }
+
+    @Override
+    public void close() {
+        if (this.ownsJedis) {
+            this.jedis.close();
+        }
+    }
+
+    private List<String> arguments(int permits, boolean partial) {
+        return LimiterCalls.windowArguments(this.maxUsage, this.windowLength, permits, partial);
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Count-min sketch of requested and denied permits per token, with the tokens of the highest estimates kept
+ * as candidates. Tokens which are already candidates are recorded without locking, and others take the lock
+ * only when their estimate beats the coldest candidate.
+ */
+final class HotTokenTracker {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 1 << 11;
+
+    private final AtomicLongArray requests = new AtomicLongArray(DEPTH * WIDTH);
+    private final AtomicLongArray denials = new AtomicLongArray(DEPTH * WIDTH);
+    private final AtomicReferenceArray<String> candidates;
+    private volatile long threshold;
+
+    HotTokenTracker(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Number of hot tokens must be positive.");
+        }
+        this.candidates = new AtomicReferenceArray<>(size);
+    }
+
+    void record(String token, int permits, boolean allowed) {
+        int hash = token.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int cell = cellOf(hash, row);
+            estimate = Math.min(estimate, this.requests.addAndGet(cell, permits));
+            if (!allowed) {
+                this.denials.addAndGet(cell, permits);
+            }
+        }
+
+        if (estimate > this.threshold && !this.isCandidate(token, hash)) {
+            this.offer(token, hash, estimate);
+        }
+    }
+
+    List<RateLimiterStats.HotToken> top() {
+        List<RateLimiterStats.HotToken> result = new ArrayList<>();
+        for (int i = 0; i < this.candidates.length(); i++) {
+            String token = this.candidates.get(i);
+            if (token != null) {
+                int hash = token.hashCode();
+                result.add(new RateLimiterStats.HotToken(
+                        token, estimate(this.requests, hash), estimate(this.denials, hash)));
+            }
+        }
+        result.sort(Comparator.comparingLong(RateLimiterStats.HotToken::requests).reversed());
+        return result;
+    }
+
+    synchronized void reset() {
+        for (int i = 0; i < DEPTH * WIDTH; i++) {
+            this.requests.set(i, 0);
+            this.denials.set(i, 0);
+        }
+        for (int i = 0; i < this.candidates.length(); i++) {
+            this.candidates.set(i, null);
+        }
+        this.threshold = 0;
+    }
+
+    private boolean isCandidate(String token, int hash) {
+        for (int i = 0; i < this.candidates.length(); i++) {
+            String candidate = this.candidates.get(i);
+            if (candidate == token || (candidate != null && candidate.hashCode() == hash && candidate.equals(token))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void offer(String token, int hash, long estimate) {
+        if (this.isCandidate(token, hash)) {
+            return;
+        }
+
+        // Candidates keep getting hotter, so find the coldest one by its current estimate.
+        int coldest = -1;
+        long coldestEstimate = Long.MAX_VALUE;
+        for (int i = 0; i < this.candidates.length(); i++) {
+            String candidate = this.candidates.get(i);
+            long candidateEstimate = candidate == null ? 0 : estimate(this.requests, candidate.hashCode());
+            if (candidateEstimate < coldestEstimate) {
+                coldest = i;
+                coldestEstimate = candidateEstimate;
+            }
+        }
+        if (estimate <= coldestEstimate) {
+            this.threshold = coldestEstimate;
+            return;
+        }
+        this.candidates.set(coldest, token);
+
+        long newThreshold = Long.MAX_VALUE;
+        for (int i = 0; i < this.candidates.length(); i++) {
+            String candidate = this.candidates.get(i);
+            newThreshold = Math.min(newThreshold, candidate == null ? 0 : estimate(this.requests, candidate.hashCode()));
+        }
+        this.threshold = newThreshold;
+    }
+
+    private static long estimate(AtomicLongArray counts, int hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counts.get(cellOf(hash, row)));
+        }
+        return estimate;
+    }
+
+    private static int cellOf(int hash, int row) {
+        // Derive the row hashes from two mixes of the token hash.
+        int first = hash * 0x9E3779B9;
+        int second = Integer.reverse(hash * 0x85EBCA6B) | 1;
+        first ^= first >>> 16;
+        return row * WIDTH + ((first + row * second) & (WIDTH - 1));
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reports every decision of the underlying limiter to a {@link RateLimiterMetrics}. Many limiters decide locally
+ * for most calls, so round trips are reported by the limiters which make them, such as
+ * {@link FixedWindowRateLimiter} and {@link SlidingWindowRateLimiter}, where the call to Redis is timed.
+ */
+public class InstrumentedRateLimiter implements RateLimiter {
+
+    private final RateLimiter delegate;
+    private final RateLimiterMetrics metrics;
+
+    public InstrumentedRateLimiter(RateLimiter delegate, RateLimiterMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean tryAcquire(String token, int permits) {
+        boolean allowed = this.delegate.tryAcquire(token, permits);
+        this.metrics.recordDecision(token, permits, allowed);
+        return allowed;
+    }
+
+    @Override
+    public boolean acquire(String token, int permits, Duration maxWait) throws InterruptedException {
+        boolean allowed = this.delegate.acquire(token, permits, maxWait);
+        this.metrics.recordDecision(token, permits, allowed);
+        return allowed;
+    }
+
+    @Override
+    public Map<String, Boolean> useAll(Collection<String> tokens) {
+        Map<String, Boolean> result = this.delegate.useAll(tokens);
+        result.forEach((token, allowed) -> this.metrics.recordDecision(token, 1, allowed));
+        return result;
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public interface LeasableRateLimiter extends RateLimiter {
+
+    PermitLease lease(String token, int permits, boolean partial);
+
+    Map<String, PermitLease> leaseAll(Collection<String> tokens, int permits, boolean partial);
+
+    @Override
+    default boolean tryAcquire(String token, int permits) {
+        return this.lease(token, permits, false).granted() > 0;
+    }
+
+    @Override
+    default boolean acquire(String token, int permits, Duration maxWait) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (true) {
+            PermitLease lease = this.lease(token, permits, false);
+            if (lease.granted() > 0) {
+                return true;
+            }
+            if (lease.durationMillis() < 0) {
+                return false;
+            }
+
+            long wait = TimeUnit.MILLISECONDS.toNanos(lease.durationMillis());
+            if (System.nanoTime() + wait - deadline > 0) {
+                return false;
+            }
+            // Park until the server expects the permits to be available instead of polling it.
+            Thread.sleep(Duration.ofNanos(wait));
+        }
+    }
+
+    @Override
+    default Map<String, Boolean> useAll(Collection<String> tokens) {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        this.leaseAll(tokens, 1, false).forEach((token, lease) -> result.put(token, lease.granted() > 0));
+        return result;
+    }
+}
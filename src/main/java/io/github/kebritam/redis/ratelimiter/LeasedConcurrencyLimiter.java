@@ -0,0 +1,121 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import io.github.kebritam.redis.common.RedisHelpers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.*;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of in-flight tasks per token across every client. Each acquired slot is a lease which expires
+ * on its own if the holder crashes. Releases are queued and sent in one pipeline per {@code releaseInterval},
+ * so a released slot becomes available to other clients at most one interval later.
+ */
+public final class LeasedConcurrencyLimiter implements ConcurrencyLimiter, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeasedConcurrencyLimiter.class);
+
+    private final UnifiedJedis jedis;
+    private final int maxConcurrency;
+    private final long leaseTime;
+    private final ConcurrentLinkedQueue<PendingRelease> pendingReleases = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService releaseFlusher;
+    private final boolean ownsJedis;
+
+    public LeasedConcurrencyLimiter(String redisAddress, int maxConcurrency, Duration leaseTime, Duration releaseInterval) {
+        this(new JedisPooled(HostAndPort.from(redisAddress), DefaultJedisClientConfig.builder().build()),
+                maxConcurrency, leaseTime, releaseInterval, true);
+    }
+
+    /**
+     * Creates a limiter on a client of the caller, which is left open on {@link #close()}.
+     */
+    public LeasedConcurrencyLimiter(UnifiedJedis jedis, int maxConcurrency, Duration leaseTime, Duration releaseInterval) {
+        this(jedis, maxConcurrency, leaseTime, releaseInterval, false);
+    }
+
+    private LeasedConcurrencyLimiter(UnifiedJedis jedis, int maxConcurrency, Duration leaseTime,
+                                     Duration releaseInterval, boolean ownsJedis) {
+        this.jedis = jedis;
+        this.ownsJedis = ownsJedis;
+        this.maxConcurrency = maxConcurrency;
+        this.leaseTime = leaseTime.toMillis();
+
+        byte[] luaScript = RedisHelpers.getLuaScript(Path.of("src/main/resources/lua/ratelimiter.lua"));
+        this.jedis.functionLoadReplace(luaScript);
+
+        this.releaseFlusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("concurrency-limiter-release-flusher").factory());
+        this.releaseFlusher.scheduleWithFixedDelay(
+                this::flushQuietly, releaseInterval.toNanos(), releaseInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String tryAcquire(String token) {
+        String lease = UUID.randomUUID().toString();
+        PermitLease result = PermitLease.fromReply(this.jedis.fcall(
+                "concurrency_acquire",
+                List.of(RateLimiterKeys.of("concurrency", token)),
+                List.of(String.valueOf(this.maxConcurrency), String.valueOf(this.leaseTime), lease)));
+        return result.granted() > 0 ? lease : null;
+    }
+
+    @Override
+    public void release(String token, String lease) {
+        this.pendingReleases.add(new PendingRelease(token, lease));
+    }
+
+    public void flush() {
+        Map<String, List<String>> releases = new HashMap<>();
+        PendingRelease release;
+        while ((release = this.pendingReleases.poll()) != null) {
+            releases.computeIfAbsent(release.token(), key -> new ArrayList<>()).add(release.lease());
+        }
+        if (releases.isEmpty()) {
+            return;
+        }
+
+        try (AbstractPipeline pipe = this.jedis.pipelined()) {
+            releases.forEach((token, leases) -> pipe.zrem(RateLimiterKeys.of("concurrency", token), leases.toArray(String[]::new)));
+            pipe.sync();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            this.flush();
+        } catch (JedisException ex) {
+            // The leases which could not be released will expire on their own.
+            LOGGER.warn("Could not release leased slots.", ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.releaseFlusher.shutdown();
+        try {
+            this.releaseFlusher.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        this.flush();
+        if (this.ownsJedis) {
+            this.jedis.close();
+        }
+    }
+
+    private record PendingRelease(String token, String lease) {
+    }
+}
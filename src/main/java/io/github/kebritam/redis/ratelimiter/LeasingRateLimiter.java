@@ -0,0 +1,171 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Leases blocks of permits per token from the underlying limiter and serves them from memory, so a hot token
+ * costs one round trip per {@code leaseSize} calls. Tokens which are over the limit are rejected locally until
+ * the underlying limiter expects them to recover. Leased permits which are not used before the lease expires
+ * are lost, so a node may under-admit by at most {@code leaseSize} permits per token and lease. Weighted calls
+ * which need more permits than a lease holds go to the underlying limiter directly.
+ */
+public class LeasingRateLimiter implements RateLimiter {
+
+    private static final int PRUNE_INTERVAL = 1_024;
+
+    private final LeasableRateLimiter delegate;
+    private final int leaseSize;
+    private final long maxStaleness;
+    private final ConcurrentHashMap<String, TokenState> tokens = new ConcurrentHashMap<>();
+    private final AtomicInteger refreshes = new AtomicInteger();
+
+    public LeasingRateLimiter(LeasableRateLimiter delegate, int leaseSize, Duration maxStaleness) {
+        if (leaseSize <= 0) {
+            throw new IllegalArgumentException("Lease size must be positive.");
+        }
+        this.delegate = delegate;
+        this.leaseSize = leaseSize;
+        this.maxStaleness = maxStaleness.toNanos();
+    }
+
+    @Override
+    public boolean tryAcquire(String token, int permits) {
+        if (permits > this.leaseSize) {
+            return this.delegate.tryAcquire(token, permits);
+        }
+
+        TokenState state = this.tokens.get(token);
+        if (state != null) {
+            LocalLease lease = state.lease;
+            if (lease != null && lease.isValid(System.nanoTime())) {
+                if (lease.tryTake(permits)) {
+                    return true;
+                }
+                if (lease.denied) {
+                    return false;
+                }
+            }
+        } else {
+            state = this.tokens.computeIfAbsent(token, key -> new TokenState());
+        }
+        return this.refresh(token, state, permits);
+    }
+
+    @Override
+    public boolean acquire(String token, int permits, Duration maxWait) throws InterruptedException {
+        if (this.tryAcquire(token, permits)) {
+            return true;
+        }
+
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        TokenState state = this.tokens.get(token);
+        LocalLease lease = state == null ? null : state.lease;
+        if (lease != null && lease.denied) {
+            if (lease.expiresAt - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(Duration.ofNanos(Math.max(0, lease.expiresAt - System.nanoTime())));
+        }
+        // The local lease can not serve the permits, so let the underlying limiter wait for the server.
+        return this.delegate.acquire(token, permits, Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+    }
+
+    private boolean refresh(String token, TokenState state, int permits) {
+        state.refreshLock.lock();
+        while (state.retired) {
+            // Pruned while this thread was on its way, so a lease stored in it would be lost. Use its successor.
+            state.refreshLock.unlock();
+            state = this.tokens.computeIfAbsent(token, key -> new TokenState());
+            state.refreshLock.lock();
+        }
+        try {
+            // Another thread may have refreshed the lease while this one was waiting for the lock.
+            long now = System.nanoTime();
+            LocalLease lease = state.lease;
+            if (lease != null && lease.isValid(now)) {
+                if (lease.tryTake(permits)) {
+                    return true;
+                }
+                if (lease.denied) {
+                    return false;
+                }
+            }
+            // Keep what is left of a valid lease which is too small for a weighted call.
+            int leftover = lease != null && lease.isValid(now) ? lease.remaining.getAndSet(0) : 0;
+
+            PermitLease leased = this.delegate.lease(token, this.leaseSize, true);
+            long duration = Duration.ofMillis(leased.durationMillis()).toNanos();
+            if (leased.granted() > 0) {
+                lease = new LocalLease(leased.granted() + leftover, now + Math.min(duration, this.maxStaleness), false);
+            } else {
+                lease = new LocalLease(0, now + duration, true);
+            }
+            boolean taken = lease.tryTake(permits);
+            state.lease = lease;
+            return taken;
+        } finally {
+            state.refreshLock.unlock();
+            if (this.refreshes.incrementAndGet() % PRUNE_INTERVAL == 0) {
+                this.pruneExpired();
+            }
+        }
+    }
+
+    /**
+     * Drops tokens whose lease expired. A state is only dropped under its lock, and is marked so a refresh which
+     * got it before it was dropped moves on, and states which are being refreshed are skipped.
+     */
+    private void pruneExpired() {
+        long now = System.nanoTime();
+        this.tokens.forEach((token, state) -> {
+            if (!state.refreshLock.tryLock()) {
+                return;
+            }
+            try {
+                LocalLease lease = state.lease;
+                if ((lease == null || !lease.isValid(now)) && this.tokens.remove(token, state)) {
+                    state.retired = true;
+                }
+            } finally {
+                state.refreshLock.unlock();
+            }
+        });
+    }
+
+    private static final class TokenState {
+        private final ReentrantLock refreshLock = new ReentrantLock();
+        private volatile LocalLease lease;
+        // Guarded by the refresh lock.
+        private boolean retired;
+    }
+
+    private static final class LocalLease {
+        private final AtomicInteger remaining;
+        private final long expiresAt;
+        private final boolean denied;
+
+        private LocalLease(int remaining, long expiresAt, boolean denied) {
+            this.remaining = new AtomicInteger(remaining);
+            this.expiresAt = expiresAt;
+            this.denied = denied;
+        }
+
+        private boolean isValid(long now) {
+            return now - this.expiresAt < 0;
+        }
+
+        private boolean tryTake(int permits) {
+            int current;
+            do {
+                current = this.remaining.get();
+                if (current < permits) {
+                    return false;
+                }
+            } while (!this.remaining.compareAndSet(current, current - permits));
+            return true;
+        }
+    }
+}
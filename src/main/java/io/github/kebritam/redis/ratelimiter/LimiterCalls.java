@@ -0,0 +1,54 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.UnifiedJedis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Function calls shared by the window limiters.
+ */
+final class LimiterCalls {
+
+    private LimiterCalls() {
+    }
+
+    /**
+     * Arguments of {@code fixed_window}, {@code gcra} and the sliding window functions, which may take more after
+     * these.
+     */
+    static List<String> windowArguments(int maxUsage, long windowLength, int permits, boolean partial,
+                                        String... extra) {
+        List<String> arguments = new ArrayList<>(4 + extra.length);
+        arguments.add(String.valueOf(maxUsage));
+        arguments.add(String.valueOf(windowLength));
+        arguments.add(String.valueOf(permits));
+        arguments.add(partial ? "1" : "0");
+        arguments.addAll(List.of(extra));
+        return arguments;
+    }
+
+    /**
+     * Calls {@code function} once per distinct token in one pipeline, and returns the leases in token order.
+     */
+    static Map<String, PermitLease> leaseAll(UnifiedJedis jedis, String function, Collection<String> tokens,
+                                             Function<String, List<String>> keysOf, List<String> arguments) {
+        Map<String, Response<Object>> responses = new LinkedHashMap<>();
+        try (AbstractPipeline pipe = jedis.pipelined()) {
+            for (String token : tokens) {
+                responses.computeIfAbsent(token, key -> pipe.fcall(function, keysOf.apply(key), arguments));
+            }
+            pipe.sync();
+        }
+
+        Map<String, PermitLease> result = new LinkedHashMap<>();
+        responses.forEach((token, response) -> result.put(token, PermitLease.fromReply(response.get())));
+        return result;
+    }
+}
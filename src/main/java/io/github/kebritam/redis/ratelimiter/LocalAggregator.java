@@ -0,0 +1,186 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admits calls of a fixed window limiter against the last synced global count plus the calls admitted locally
+ * since then, and adds the local calls to Redis in one pipeline per sync interval. Nodes may over-admit by what
+ * the other nodes admitted during one interval, and calls admitted right before a window ends may be counted
+ * in the next window.
+ */
+final class LocalAggregator implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalAggregator.class);
+    private static final long RETIRED = -1;
+
+    private final UnifiedJedis jedis;
+    private final int maxUsage;
+    private final long windowLength;
+    private final long syncInterval;
+    private final RateLimiterMetrics metrics;
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService syncer;
+
+    LocalAggregator(UnifiedJedis jedis, int maxUsage, long windowLength, Duration syncInterval,
+                    RateLimiterMetrics metrics) {
+        this.jedis = jedis;
+        this.maxUsage = maxUsage;
+        this.windowLength = windowLength;
+        this.syncInterval = syncInterval.toNanos();
+        this.metrics = metrics;
+
+        this.syncer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("fixed-window-rate-limiter-sync").factory());
+        this.syncer.scheduleWithFixedDelay(
+                this::syncQuietly, syncInterval.toNanos(), syncInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    boolean tryAcquire(String token, int permits) {
+        while (true) {
+            Counter counter = this.counters.get(token);
+            if (counter == null) {
+                // Start from the global count, so a node which sees a token for the first time does not admit a whole window.
+                Counter fetched = new Counter();
+                long start = System.nanoTime();
+                Object reply = this.jedis.fcall("fixed_window_add", List.of(RateLimiterKeys.of("fixed", token)), this.arguments(0));
+                long now = System.nanoTime();
+                this.metrics.recordRoundTrip(now - start);
+                fetched.update(reply, now);
+                counter = this.counters.computeIfAbsent(token, key -> fetched);
+            }
+
+            long synced = System.nanoTime() - counter.windowEndsAt < 0 ? counter.synced : 0;
+            long unsynced;
+            do {
+                unsynced = counter.unsynced.get();
+                if (unsynced == RETIRED) {
+                    break;
+                }
+                if (synced + unsynced + permits > this.maxUsage) {
+                    return false;
+                }
+            } while (!counter.unsynced.compareAndSet(unsynced, unsynced + permits));
+
+            if (unsynced != RETIRED) {
+                counter.pending.addAndGet(permits);
+                return true;
+            }
+            // The counter was dropped by a sync, so start over with a new one.
+            this.counters.remove(token, counter);
+        }
+    }
+
+    /**
+     * Waits for room in the window like {@link LeasableRateLimiter#acquire} does, but against the local counts.
+     * Admitted calls are not given back, so room only comes with the next window, as far as the last sync knows.
+     */
+    boolean acquire(String token, int permits, Duration maxWait) throws InterruptedException {
+        if (permits > this.maxUsage) {
+            return false;
+        }
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (!this.tryAcquire(token, permits)) {
+            Counter counter = this.counters.get(token);
+            long now = System.nanoTime();
+            // Wait at least a sync interval, as a passed window is only reset locally by the next sync.
+            long wait = Math.max(counter == null ? 0 : counter.windowEndsAt - now, this.syncInterval);
+            if (now + wait - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(Duration.ofNanos(wait));
+        }
+        return true;
+    }
+
+    void sync() {
+        Map<String, Long> deltas = new HashMap<>();
+        Map<String, Response<Object>> responses = new HashMap<>();
+        try (AbstractPipeline pipe = this.jedis.pipelined()) {
+            long now = System.nanoTime();
+            this.counters.forEach((token, counter) -> {
+                // Nothing is admitted on a retired counter, so no call can be lost with it.
+                if (now - counter.windowEndsAt >= 0 && counter.unsynced.compareAndSet(0, RETIRED)) {
+                    this.counters.remove(token, counter);
+                    return;
+                }
+                long delta = counter.pending.getAndSet(0);
+                deltas.put(token, delta);
+                responses.put(token, pipe.fcall("fixed_window_add", List.of(RateLimiterKeys.of("fixed", token)), this.arguments(delta)));
+            });
+            pipe.sync();
+        } catch (JedisException ex) {
+            // Keep the calls as pending, so the next sync adds them.
+            deltas.forEach((token, delta) -> {
+                Counter counter = this.counters.get(token);
+                if (counter != null) {
+                    counter.pending.addAndGet(delta);
+                }
+            });
+            throw ex;
+        }
+
+        long now = System.nanoTime();
+        responses.forEach((token, response) -> {
+            Counter counter = this.counters.get(token);
+            if (counter != null) {
+                counter.update(response.get(), now);
+                counter.unsynced.addAndGet(-deltas.get(token));
+            }
+        });
+    }
+
+    private void syncQuietly() {
+        try {
+            this.sync();
+        } catch (JedisException ex) {
+            LOGGER.warn("Could not sync locally aggregated calls.", ex);
+        }
+    }
+
+    private List<String> arguments(long delta) {
+        return List.of(String.valueOf(this.windowLength), String.valueOf(delta));
+    }
+
+    @Override
+    public void close() {
+        this.syncer.shutdown();
+        try {
+            this.syncer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        this.sync();
+    }
+
+    /**
+     * Calls admitted on one node and not yet seen in {@code synced}. {@code unsynced} counts every such call and
+     * is what admission reserves against, and {@code pending} counts the part which is not sent to Redis yet.
+     */
+    private static final class Counter {
+        private final AtomicLong unsynced = new AtomicLong();
+        private final AtomicLong pending = new AtomicLong();
+        private volatile long synced;
+        private volatile long windowEndsAt;
+
+        private void update(Object reply, long now) {
+            List<?> values = (List<?>) reply;
+            this.synced = (Long) values.get(0);
+            this.windowEndsAt = now + TimeUnit.MILLISECONDS.toNanos((Long) values.get(1));
+        }
+    }
+}
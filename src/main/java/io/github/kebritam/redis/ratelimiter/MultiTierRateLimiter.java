@@ -0,0 +1,90 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import io.github.kebritam.redis.common.RedisHelpers;
+import redis.clients.jedis.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class MultiTierRateLimiter implements LeasableRateLimiter, AutoCloseable {
+
+    public record Tier(int maxUsage, Duration window) {
+    }
+
+    private final UnifiedJedis jedis;
+    private final List<Tier> tiers;
+    private final boolean ownsJedis;
+
+    public MultiTierRateLimiter(String redisAddress, List<Tier> tiers) {
+        this(new JedisPooled(HostAndPort.from(redisAddress), DefaultJedisClientConfig.builder().build()), tiers, true);
+    }
+
+    /**
+     * Creates a limiter on a client of the caller, which is left open on {@link #close()}.
+     */
+    public MultiTierRateLimiter(UnifiedJedis jedis, List<Tier> tiers) {
+        this(jedis, tiers, false);
+    }
+
+    private MultiTierRateLimiter(UnifiedJedis jedis, List<Tier> tiers, boolean ownsJedis) {
+        if (tiers.isEmpty()) {
+            throw new IllegalArgumentException("At least one tier is required.");
+        }
+        // A tier is keyed by its window, so two tiers of one window would share and overwrite one counter.
+        Set<Long> windows = new HashSet<>();
+        for (Tier tier : tiers) {
+            if (!windows.add(tier.window().toMillis())) {
+                throw new IllegalArgumentException("Tiers must have different windows, but " + tier.window()
+                        + " is given more than once.");
+            }
+        }
+        this.jedis = jedis;
+        this.ownsJedis = ownsJedis;
+        this.tiers = List.copyOf(tiers);
+
+        byte[] luaScript = RedisHelpers.getLuaScript(Path.of("src/main/resources/lua/ratelimiter.lua"));
+        this.jedis.functionLoadReplace(luaScript);
+    }
+
+    @Override
+    public PermitLease lease(String token, int permits, boolean partial) {
+        return PermitLease.fromReply(this.jedis.fcall("multi_tier", this.keys(token), this.arguments(permits, partial)));
+    }
+
+    @Override
+    public Map<String, PermitLease> leaseAll(Collection<String> tokens, int permits, boolean partial) {
+        return LimiterCalls.leaseAll(this.jedis, "multi_tier", tokens, this::keys, this.arguments(permits, partial));
+    }
+
+    @Override
+    public void close() {
+        if (this.ownsJedis) {
+            this.jedis.close();
+        }
+    }
+
+    private List<String> keys(String token) {
+        List<String> keys = new ArrayList<>(this.tiers.size());
+        for (Tier tier : this.tiers) {
+            keys.add(RateLimiterKeys.of("tier", token) + ":" + tier.window().toMillis());
+        }
+        return keys;
+    }
+
+    private List<String> arguments(int permits, boolean partial) {
+        List<String> arguments = new ArrayList<>(2 + 2 * this.tiers.size());
+        arguments.add(String.valueOf(permits));
+        arguments.add(partial ? "1" : "0");
+        for (Tier tier : this.tiers) {
+            arguments.add(String.valueOf(tier.maxUsage()));
+            arguments.add(String.valueOf(tier.window().toMillis()));
+        }
+        return arguments;
+    }
+}
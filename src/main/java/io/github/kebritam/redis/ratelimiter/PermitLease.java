@@ -0,0 +1,15 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import java.util.List;
+
+/**
+ * Result of leasing permits of a token. When some permits are granted {@code durationMillis} tells how long
+ * they may be served, otherwise it tells how long the token is expected to stay over the limit.
+ */
+public record PermitLease(int granted, long durationMillis) {
+
+    static PermitLease fromReply(Object reply) {
+        List<?> values = (List<?>) reply;
+        return new PermitLease(((Long) values.get(0)).intValue(), (Long) values.get(1));
+    }
+}
@@ -1,5 +1,24 @@
 package io.github.kebritam.redis.ratelimiter;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public interface RateLimiter {
-    boolean use(String token);
+    default boolean use(String token) {
+        return this.tryAcquire(token, 1);
+    }
+
+    boolean tryAcquire(String token, int permits);
+
+    boolean acquire(String token, int permits, Duration maxWait) throws InterruptedException;
+
+    default Map<String, Boolean> useAll(Collection<String> tokens) {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        for (String token : tokens) {
+            result.computeIfAbsent(token, this::use);
+        }
+        return result;
+    }
 }
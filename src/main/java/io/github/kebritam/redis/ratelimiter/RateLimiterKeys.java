@@ -0,0 +1,13 @@
+package io.github.kebritam.redis.ratelimiter;
+
+final class RateLimiterKeys {
+
+    private RateLimiterKeys() {
+    }
+
+    // The token is wrapped in a hash tag, so every key of a token lands on the same cluster slot
+    // and scripts which touch several of them keep working on Redis Cluster.
+    static String of(String kind, String token) {
+        return "ratelimiter:" + kind + ":{" + token + "}";
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.kebritam.redis.ratelimiter;
+
+/**
+ * Receives the decisions of an {@link InstrumentedRateLimiter}, and the latencies of the calls limiters make to
+ * Redis. Methods are called on the request path, so implementations should be cheap and should not allocate.
+ */
+public interface RateLimiterMetrics {
+
+    RateLimiterMetrics NOOP = new RateLimiterMetrics() {
+    };
+
+    default void recordDecision(String token, int permits, boolean allowed) {
+    }
+
+    default void recordRoundTrip(long nanos) {
+    }
+}
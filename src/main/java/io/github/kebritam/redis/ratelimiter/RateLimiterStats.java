@@ -0,0 +1,71 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import io.github.kebritam.redis.common.LatencyHistogram;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory {@link RateLimiterMetrics} which counts allowed and denied calls, keeps a histogram of round trips
+ * and tracks the hottest tokens in bounded memory.
+ */
+public class RateLimiterStats implements RateLimiterMetrics {
+
+    public record HotToken(String token, long requests, long denied) {
+    }
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+    private final LatencyHistogram roundTrips = new LatencyHistogram();
+    private final HotTokenTracker hotTokens;
+
+    public RateLimiterStats() {
+        this(16);
+    }
+
+    public RateLimiterStats(int topK) {
+        this.hotTokens = new HotTokenTracker(topK);
+    }
+
+    @Override
+    public void recordDecision(String token, int permits, boolean allowed) {
+        if (allowed) {
+            this.allowed.add(permits);
+        } else {
+            this.denied.add(permits);
+        }
+        this.hotTokens.record(token, permits, allowed);
+    }
+
+    @Override
+    public void recordRoundTrip(long nanos) {
+        this.roundTrips.record(nanos);
+    }
+
+    public long allowed() {
+        return this.allowed.sum();
+    }
+
+    public long denied() {
+        return this.denied.sum();
+    }
+
+    public LatencyHistogram roundTrips() {
+        return this.roundTrips;
+    }
+
+    /**
+     * Returns the hottest tokens by estimated requests, hottest first. Estimates never undercount, but may
+     * overcount by what colliding tokens added.
+     */
+    public List<HotToken> hotTokens() {
+        return this.hotTokens.top();
+    }
+
+    public void reset() {
+        this.allowed.reset();
+        this.denied.reset();
+        this.roundTrips.reset();
+        this.hotTokens.reset();
+    }
+}
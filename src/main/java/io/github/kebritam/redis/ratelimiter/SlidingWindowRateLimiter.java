@@ -1,33 +1,112 @@
 package io.github.kebritam.redis.ratelimiter;
 
+import io.github.kebritam.redis.common.RedisHelpers;
 import redis.clients.jedis.*;
 
-public class SlidingWindowRateLimiter implements RateLimiter {
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
-    private final JedisPool pool;
+public class SlidingWindowRateLimiter implements LeasableRateLimiter, AutoCloseable {
+
+    public enum Mode {
+        /**
+         * Keeps one sorted-set member per recorded call, so the decision is exact but memory grows
+         * with the limit and trimming the log costs O(log N + M) per call.
+         */
+        LOG,
+        /**
+         * Keeps the counters of the current and the previous fixed window and weights the previous one
+         * by how much of it the sliding window still covers. Memory and evaluation are constant per token,
+         * but the result is an approximation which assumes calls of the previous window were evenly spread,
+         * so bursty traffic at a window edge may be admitted or rejected slightly earlier than in {@link #LOG}.
+         */
+        COUNTER
+    }
+
+    private final UnifiedJedis jedis;
     private final int maxUsage;
     private final long windowLength;
+    private final Mode mode;
+    private final boolean recordRejected;
+    private final RateLimiterMetrics metrics;
+    private final boolean ownsJedis;
 
     public SlidingWindowRateLimiter(String redisAddress, int maxUsage, int windowLength) {
-        this.pool = new JedisPool(HostAndPort.from(redisAddress), DefaultJedisClientConfig.builder().build());
+        this(redisAddress, maxUsage, windowLength, Mode.LOG, true);
+    }
+
+    public SlidingWindowRateLimiter(String redisAddress, int maxUsage, int windowLength,
+                                    Mode mode, boolean recordRejected) {
+        this(redisAddress, maxUsage, windowLength, mode, recordRejected, RateLimiterMetrics.NOOP);
+    }
+
+    /**
+     * Like the other constructors, and reports the latency of every call to Redis to {@code metrics}.
+     */
+    public SlidingWindowRateLimiter(String redisAddress, int maxUsage, int windowLength,
+                                    Mode mode, boolean recordRejected, RateLimiterMetrics metrics) {
+        this(new JedisPooled(HostAndPort.from(redisAddress), DefaultJedisClientConfig.builder().build()),
+                maxUsage, windowLength, mode, recordRejected, metrics, true);
+    }
+
+    /**
+     * Creates a limiter on a client of the caller, which is left open on {@link #close()}.
+     */
+    public SlidingWindowRateLimiter(UnifiedJedis jedis, int maxUsage, int windowLength,
+                                    Mode mode, boolean recordRejected) {
+        this(jedis, maxUsage, windowLength, mode, recordRejected, RateLimiterMetrics.NOOP, false);
+    }
+
+    public SlidingWindowRateLimiter(UnifiedJedis jedis, int maxUsage, int windowLength,
+                                    Mode mode, boolean recordRejected, RateLimiterMetrics metrics) {
+        this(jedis, maxUsage, windowLength, mode, recordRejected, metrics, false);
+    }
+
+    private SlidingWindowRateLimiter(UnifiedJedis jedis, int maxUsage, int windowLength, Mode mode,
+                                     boolean recordRejected, RateLimiterMetrics metrics, boolean ownsJedis) {
+        this.jedis = jedis;
+        this.ownsJedis = ownsJedis;
+        this.metrics = metrics;
         this.maxUsage = maxUsage;
-        this.windowLength = windowLength * 1_000_000_000L;
+        this.windowLength = windowLength * 1_000L;
+        this.mode = mode;
+        this.recordRejected = recordRejected;
+
+        byte[] luaScript = RedisHelpers.getLuaScript(Path.of("src/main/resources/lua/ratelimiter.lua"));
+        this.jedis.functionLoadReplace(luaScript);
+    }
+
+    @Override
+    public PermitLease lease(String token, int permits, boolean partial) {
+        long start = System.nanoTime();
+        Object reply = this.jedis.fcall(this.functionName(), List.of(RateLimiterKeys.of("sliding", token)), this.arguments(permits, partial));
+        this.metrics.recordRoundTrip(System.nanoTime() - start);
+        return PermitLease.fromReply(reply);
+    }
+
+    @Override
+    public Map<String, PermitLease> leaseAll(Collection<String> tokens, int permits, boolean partial) {
+        long start = System.nanoTime();
+        Map<String, PermitLease> leases = LimiterCalls.leaseAll(this.jedis, this.functionName(), tokens, key -> List.of(RateLimiterKeys.of("sliding", key)), this.arguments(permits, partial));
+        this.metrics.recordRoundTrip(System.nanoTime() - start);
+        return leases;
     }
 
     @Override
-    public boolean use(String token) {
-        long currentTime = System.nanoTime();
-        long windowStart = currentTime - this.windowLength;
-
-        Response<Long> response;
-        try (Jedis jedis = this.pool.getResource();
-             Pipeline pipe = jedis.pipelined()) {
-            pipe.zremrangeByScore(token, 0, windowStart);
-            response = pipe.zcard(token);
-            pipe.zadd(token, currentTime, String.valueOf(currentTime));
-            pipe.expire(token, this.windowLength);
-            pipe.sync();
+    public void close() {
+        if (this.ownsJedis) {
+            this.jedis.close();
         }
-        return response.get() < this.maxUsage;
+    }
+
+    private String functionName() {
+        return this.mode == Mode.LOG ? "sliding_window_log" : "sliding_window_counter";
+    }
+
+    private List<String> arguments(int permits, boolean partial) {
+        return LimiterCalls.windowArguments(this.maxUsage, this.windowLength, permits, partial,
+                this.recordRejected ? "1" : "0");
     }
 }
@@ -1,10 +1,184 @@
 #!lua name=distlock
 
+-- Returns 1 if the lock was still owned by the token and got released, or 0 if it had already expired.
 local function release_lock(KEYS, ARGV)
     local key = KEYS[1]
     if redis.call('get', key) == ARGV[1] then
         redis.call('del', key)
+        redis.call('publish', 'distlock:released:' .. key, '')
+        return 1
     end
+    return 0
 end
 
-redis.register_function('release_lock', release_lock)
\ No newline at end of file
+-- ARGV holds a token and a lease in milliseconds per key. Returns 1 for each key still owned by its token.
+local function extend_locks(KEYS, ARGV)
+    local extended = {}
+    for i, key in ipairs(KEYS) do
+        local owner = ARGV[2 * i - 1]
+        local lease = tonumber(ARGV[2 * i])
+        if redis.call('type', key).ok == 'hash' then
+            if redis.call('hexists', key, owner) == 1 then
+                -- Readers share the key, so never shorten the lease of another reader.
+                if redis.call('pttl', key) < lease then
+                    redis.call('pexpire', key, lease)
+                end
+                extended[i] = 1
+            else
+                extended[i] = 0
+            end
+        elseif redis.call('get', key) == owner then
+            redis.call('pexpire', key, lease)
+            extended[i] = 1
+        else
+            extended[i] = 0
+        end
+    end
+    return extended
+end
+
+-- Hash locks keep the hold count of each owner in a field, and their mode in the 'mode' field.
+-- Readers share the lock, a writer is exclusive but may also take reads, and every owner can reenter.
+local function acquire_hash_lock(key, owner, lease, mode)
+    local current = redis.call('hget', key, 'mode')
+    local granted = false
+    if not current then
+        redis.call('hset', key, 'mode', mode)
+        granted = true
+    elseif current == 'write' then
+        granted = redis.call('hexists', key, owner) == 1
+    else
+        granted = mode == 'read'
+    end
+
+    if not granted then
+        return 0
+    end
+    redis.call('hincrby', key, owner, 1)
+    if redis.call('pttl', key) < tonumber(lease) then
+        redis.call('pexpire', key, lease)
+    end
+    return 1
+end
+
+local function reentrant_lock(KEYS, ARGV)
+    return acquire_hash_lock(KEYS[1], ARGV[1], ARGV[2], 'write')
+end
+
+local function read_lock(KEYS, ARGV)
+    return acquire_hash_lock(KEYS[1], ARGV[1], ARGV[2], 'read')
+end
+
+local function write_lock(KEYS, ARGV)
+    return acquire_hash_lock(KEYS[1], ARGV[1], ARGV[2], 'write')
+end
+
+-- Returns the holds the owner has left, or -1 if it does not hold the lock.
+local function release_hash_lock(KEYS, ARGV)
+    local key = KEYS[1]
+    local owner = ARGV[1]
+    if redis.call('hexists', key, owner) == 0 then
+        return -1
+    end
+
+    local holds = redis.call('hincrby', key, owner, -1)
+    if holds <= 0 then
+        redis.call('hdel', key, owner)
+        if redis.call('hlen', key) <= 1 then
+            redis.call('del', key)
+            redis.call('publish', 'distlock:released:' .. key, '')
+        end
+    end
+    return holds
+end
+
+-- Locks every key with the token, or none of them if any key is held by another token.
+local function lock_all(KEYS, ARGV)
+    local token = ARGV[1]
+    for _, key in ipairs(KEYS) do
+        local owner = redis.call('get', key)
+        if owner and owner ~= token then
+            return 0
+        end
+    end
+    for _, key in ipairs(KEYS) do
+        redis.call('set', key, token, 'px', ARGV[2])
+    end
+    return 1
+end
+
+local function release_all(KEYS, ARGV)
+    local released = 0
+    for _, key in ipairs(KEYS) do
+        if redis.call('get', key) == ARGV[1] then
+            redis.call('del', key)
+            redis.call('publish', 'distlock:released:' .. key, '')
+            released = released + 1
+        end
+    end
+    return released
+end
+
+local function release_permits(leases, holds, lease_id, permits)
+    if redis.call('hexists', holds, lease_id) == 1 then
+        if redis.call('hincrby', holds, lease_id, -tonumber(permits)) <= 0 then
+            redis.call('hdel', holds, lease_id)
+            redis.call('zrem', leases, lease_id)
+        end
+    end
+end
+
+-- KEYS are the leases, scored by expiry, and the permits each lease holds.
+-- ARGV is limit, permits, lease_ms, lease_id, then pairs of lease ids and permits to give back first.
+local function semaphore_acquire(KEYS, ARGV)
+    local leases = KEYS[1]
+    local holds = KEYS[2]
+    for i = 5, #ARGV, 2 do
+        release_permits(leases, holds, ARGV[i], ARGV[i + 1])
+    end
+
+    local time = redis.call('time')
+    local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+    local expired = redis.call('zrangebyscore', leases, '-inf', now)
+    if #expired > 0 then
+        redis.call('zremrangebyscore', leases, '-inf', now)
+        -- Delete in chunks, as unpack can not spread too many values at once.
+        for i = 1, #expired, 1000 do
+            redis.call('hdel', holds, unpack(expired, i, math.min(i + 999, #expired)))
+        end
+    end
+
+    local used = 0
+    for _, held in ipairs(redis.call('hvals', holds)) do
+        used = used + tonumber(held)
+    end
+    local permits = tonumber(ARGV[2])
+    if used + permits > tonumber(ARGV[1]) then
+        return 0
+    end
+
+    redis.call('zadd', leases, now + tonumber(ARGV[3]), ARGV[4])
+    redis.call('hset', holds, ARGV[4], permits)
+    local last = redis.call('zrange', leases, -1, -1, 'withscores')[2]
+    redis.call('pexpireat', leases, last)
+    redis.call('pexpireat', holds, last)
+    return 1
+end
+
+-- ARGV is pairs of lease ids and permits to give back.
+local function semaphore_release(KEYS, ARGV)
+    for i = 1, #ARGV, 2 do
+        release_permits(KEYS[1], KEYS[2], ARGV[i], ARGV[i + 1])
+    end
+end
+
+redis.register_function('release_lock', release_lock)
+redis.register_function('extend_locks', extend_locks)
+redis.register_function('reentrant_lock', reentrant_lock)
+redis.register_function('read_lock', read_lock)
+redis.register_function('write_lock', write_lock)
+redis.register_function('release_hash_lock', release_hash_lock)
+redis.register_function('lock_all', lock_all)
+redis.register_function('release_all', release_all)
+redis.register_function('semaphore_acquire', semaphore_acquire)
+redis.register_function('semaphore_release', semaphore_release)
\ No newline at end of file
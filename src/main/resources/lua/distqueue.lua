@@ -1,25 +1,37 @@
 #!lua name=distqueue
 
+local function rpush_range(key, elements, first, last)
+    -- Push in chunks, as unpack can not spread too many values at once.
+    for i = first, last, 1000 do
+        redis.call('RPUSH', key, unpack(elements, i, math.min(i + 999, last)))
+    end
+end
+
+-- ARGV holds the max size followed by the elements. Adds the elements which fit, in order, and returns how many
+-- were added.
 local function offer_last(KEYS, ARGV)
     local key = KEYS[1]
     local max_size = tonumber(ARGV[1])
-    local data = ARGV[2]
-    if max_size <= 0 or redis.call('LLEN', key) < max_size then
-        redis.call('RPUSH', key, data)
-        return true
-    else
-        return false
+    local last = #ARGV
+    if max_size > 0 then
+        last = math.min(last, 1 + max_size - redis.call('LLEN', key))
+    end
+    if last < 2 then
+        return 0
     end
+    rpush_range(key, ARGV, 2, last)
+    return last - 1
 end
 
+-- ARGV holds the max size followed by the elements. Adds every element and drops the oldest ones beyond the max
+-- size.
 local function push_last(KEYS, ARGV)
     local key = KEYS[1]
     local max_size = tonumber(ARGV[1])
-    local data = ARGV[2]
-    if max_size > 0 and redis.call('LLEN', key) >= max_size then
-        redis.call('LPOP', key)
+    rpush_range(key, ARGV, 2, #ARGV)
+    if max_size > 0 then
+        redis.call('LTRIM', key, -max_size, -1)
     end
-    redis.call('RPUSH', key, data)
 end
 
 redis.register_function('offer_last', offer_last)
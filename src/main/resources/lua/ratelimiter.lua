@@ -0,0 +1,254 @@
+#!lua name=ratelimiter
+
+local function now_micros()
+    local time = redis.call('TIME')
+    return tonumber(time[1]) * 1000000 + tonumber(time[2])
+end
+
+-- Every function takes the number of wanted permits and whether a part of them may be granted. It returns
+-- the number of granted permits followed by a duration in milliseconds. When permits are granted the duration
+-- tells how long they may be served, otherwise how long the token stays limited, or -1 when the wanted
+-- permits exceed the limit and can never be granted at once.
+
+local function grantable(permits, available, partial)
+    local granted = math.max(0, math.min(permits, available))
+    if not partial and granted < permits then
+        return 0
+    end
+    return granted
+end
+
+local function fixed_window(KEYS, ARGV)
+    local key = KEYS[1]
+    local limit = tonumber(ARGV[1])
+    local window = tonumber(ARGV[2])
+    local permits = tonumber(ARGV[3])
+    local partial = ARGV[4] == '1'
+    if not partial and permits > limit then
+        return {0, -1}
+    end
+
+    -- A key which is missing or expires right now starts a fresh window, as SET does not take a PX of 0.
+    local count = 0
+    local ttl = redis.call('PTTL', key)
+    if ttl > 0 then
+        count = tonumber(redis.call('GET', key)) or 0
+    else
+        ttl = window - math.floor(now_micros() / 1000) % window
+    end
+
+    local granted = grantable(permits, limit - count, partial)
+    if granted > 0 then
+        redis.call('SET', key, count + granted, 'PX', ttl)
+    end
+    return {granted, ttl}
+end
+
+-- Adds calls which were already admitted by a client and returns the window's count with its remaining time.
+local function fixed_window_add(KEYS, ARGV)
+    local key = KEYS[1]
+    local window = tonumber(ARGV[1])
+    local delta = tonumber(ARGV[2])
+
+    -- A key which is missing or expires right now starts a fresh window, as SET does not take a PX of 0.
+    local count = 0
+    local ttl = redis.call('PTTL', key)
+    if ttl > 0 then
+        count = tonumber(redis.call('GET', key)) or 0
+    else
+        ttl = window - math.floor(now_micros() / 1000) % window
+    end
+
+    if delta > 0 then
+        redis.call('SET', key, count + delta, 'PX', ttl)
+    end
+    return {count + delta, ttl}
+end
+
+local function multi_tier(KEYS, ARGV)
+    local permits = tonumber(ARGV[1])
+    local partial = ARGV[2] == '1'
+    local now = math.floor(now_micros() / 1000)
+
+    local limits = {}
+    local counts = {}
+    local ttls = {}
+    local available = permits
+    for i, key in ipairs(KEYS) do
+        local window = tonumber(ARGV[2 * i + 2])
+        limits[i] = tonumber(ARGV[2 * i + 1])
+        if not partial and permits > limits[i] then
+            return {0, -1}
+        end
+
+        counts[i] = 0
+        ttls[i] = redis.call('PTTL', key)
+        if ttls[i] > 0 then
+            counts[i] = tonumber(redis.call('GET', key)) or 0
+        else
+            ttls[i] = window - now % window
+        end
+        available = math.min(available, limits[i] - counts[i])
+    end
+
+    -- Tiers are consumed only when every one of them admits the permits.
+    local granted = grantable(permits, available, partial)
+    local needed = partial and 1 or permits
+    local duration = 0
+    for i, key in ipairs(KEYS) do
+        if granted > 0 then
+            redis.call('SET', key, counts[i] + granted, 'PX', ttls[i])
+            if duration == 0 or ttls[i] < duration then
+                duration = ttls[i]
+            end
+        elseif counts[i] + needed > limits[i] and ttls[i] > duration then
+            duration = ttls[i]
+        end
+    end
+    return {granted, duration}
+end
+
+local function gcra(KEYS, ARGV)
+    local key = KEYS[1]
+    local limit = tonumber(ARGV[1])
+    local period = tonumber(ARGV[2]) * 1000
+    local permits = tonumber(ARGV[3])
+    local partial = ARGV[4] == '1'
+    if not partial and permits > limit then
+        return {0, -1}
+    end
+
+    local interval = period / limit
+    local now = now_micros()
+    local tat = tonumber(redis.call('GET', key)) or now
+    if tat < now then
+        tat = now
+    end
+
+    local granted = grantable(permits, math.floor((now + period - tat) / interval + 1e-9), partial)
+    if granted == 0 then
+        local needed = partial and 1 or permits
+        return {0, math.max(1, math.ceil((tat + needed * interval - period - now) / 1000))}
+    end
+
+    local new_tat = tat + granted * interval
+    redis.call('SET', key, string.format('%.0f', new_tat), 'PX', math.ceil((new_tat - now) / 1000))
+    return {granted, tonumber(ARGV[2])}
+end
+
+local function sliding_window_log(KEYS, ARGV)
+    local key = KEYS[1]
+    local limit = tonumber(ARGV[1])
+    local window = tonumber(ARGV[2]) * 1000
+    local permits = tonumber(ARGV[3])
+    local partial = ARGV[4] == '1'
+    local record_rejected = ARGV[5] == '1'
+    if not partial and permits > limit then
+        return {0, -1}
+    end
+
+    local now = now_micros()
+    redis.call('ZREMRANGEBYSCORE', key, '-inf', now - window)
+    local count = redis.call('ZCARD', key)
+    local granted = grantable(permits, limit - count, partial)
+
+    local recorded = granted
+    if record_rejected then
+        recorded = permits
+    end
+    for i = 1, recorded do
+        redis.call('ZADD', key, now, string.format('%.0f-%d', now, count + i))
+    end
+    if recorded > 0 then
+        redis.call('PEXPIRE', key, ARGV[2])
+    end
+
+    if granted > 0 then
+        return {granted, tonumber(ARGV[2])}
+    end
+    -- The wanted permits free up once enough of the oldest calls slide out of the window.
+    local needed = partial and 1 or permits
+    local index = count + needed - limit - 1
+    local freeing = redis.call('ZRANGE', key, index, index, 'WITHSCORES')
+    return {0, math.max(1, math.ceil((tonumber(freeing[2]) + window - now) / 1000))}
+end
+
+local function sliding_window_counter(KEYS, ARGV)
+    local key = KEYS[1]
+    local limit = tonumber(ARGV[1])
+    local window = tonumber(ARGV[2]) * 1000
+    local permits = tonumber(ARGV[3])
+    local partial = ARGV[4] == '1'
+    local record_rejected = ARGV[5] == '1'
+    if not partial and permits > limit then
+        return {0, -1}
+    end
+
+    local now = now_micros()
+    local index = math.floor(now / window)
+    local state = redis.call('HMGET', key, 'window', 'current', 'previous')
+    local stored_index = tonumber(state[1])
+    local current = tonumber(state[2]) or 0
+    local previous = tonumber(state[3]) or 0
+    if stored_index ~= index then
+        if stored_index == index - 1 then
+            previous = current
+        else
+            previous = 0
+        end
+        current = 0
+    end
+
+    -- Assume the previous window's calls were spread evenly and count only the part of it
+    -- which is still covered by the sliding window.
+    local elapsed = now - index * window
+    local estimate = previous * (1 - elapsed / window) + current
+    local granted = grantable(permits, math.ceil(limit - estimate), partial)
+
+    local recorded = granted
+    if record_rejected then
+        recorded = permits
+    end
+    redis.call('HSET', key, 'window', index, 'current', current + recorded, 'previous', previous)
+    redis.call('PEXPIRE', key, 2 * tonumber(ARGV[2]))
+
+    if granted > 0 then
+        return {granted, math.ceil((window - elapsed) / 1000)}
+    end
+    -- The estimate has to drop below this target before the wanted permits fit.
+    local target = limit - (partial and 1 or permits) + 1
+    local wait = window - elapsed
+    if current < target and previous > 0 then
+        wait = (1 - (target - current) / previous) * window - elapsed
+    end
+    return {0, math.max(1, math.ceil(wait / 1000))}
+end
+
+-- Leases live in a sorted set scored by their expiry, so the slots of crashed holders are reclaimed here
+-- instead of being held forever.
+local function concurrency_acquire(KEYS, ARGV)
+    local key = KEYS[1]
+    local limit = tonumber(ARGV[1])
+    local lease_time = tonumber(ARGV[2])
+    local lease = ARGV[3]
+    local now = math.floor(now_micros() / 1000)
+
+    redis.call('ZREMRANGEBYSCORE', key, '-inf', now)
+    if redis.call('ZCARD', key) >= limit then
+        local earliest = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+        return {0, tonumber(earliest[2]) - now}
+    end
+
+    redis.call('ZADD', key, now + lease_time, lease)
+    local latest = redis.call('ZRANGE', key, -1, -1, 'WITHSCORES')
+    redis.call('PEXPIREAT', key, latest[2])
+    return {1, lease_time}
+end
+
+redis.register_function('fixed_window', fixed_window)
+redis.register_function('fixed_window_add', fixed_window_add)
+redis.register_function('multi_tier', multi_tier)
+redis.register_function('gcra', gcra)
+redis.register_function('sliding_window_log', sliding_window_log)
+redis.register_function('sliding_window_counter', sliding_window_counter)
+redis.register_function('concurrency_acquire', concurrency_acquire)
\ No newline at end of file
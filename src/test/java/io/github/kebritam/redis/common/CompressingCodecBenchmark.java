@@ -0,0 +1,55 @@
+package io.github.kebritam.redis.common;
+
+import java.util.zip.Deflater;
+
+/**
+ * Reports the size and CPU trade-off of {@link CompressingCodec} on JSON documents, for each compression level
+ * and document size. Run the main method; Redis is not needed.
+ */
+public class CompressingCodecBenchmark {
+
+    private static final int[] SIZES = {1_024, 20_000, 200_000};
+    private static final int[] LEVELS = {Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION};
+    private static final long TARGET_NANOS = 500_000_000L;
+
+    public static void main(String[] args) {
+        ElementTranslator<String> translator = new ElementTranslator<>() {
+            @Override
+            public String serialize(String element) { return element; }
+            @Override
+            public String deserialize(String bytes) { return bytes; }
+        };
+
+        System.out.printf("%10s %6s %12s %8s %14s %14s%n", "size", "level", "encoded", "ratio", "encode us/op", "decode us/op");
+        for (int size : SIZES) {
+            String document = CompressingCodecTest.jsonDocument(size);
+            for (int level : LEVELS) {
+                ElementCodec<String> codec = new CompressingCodec<>(ElementCodec.of(translator), 0, level);
+                byte[] encoded = codec.encode(document);
+
+                double encodeMicros = measure(() -> codec.encode(document));
+                double decodeMicros = measure(() -> codec.decode(encoded));
+                System.out.printf("%10d %6d %12d %8.2f %14.1f %14.1f%n", document.length(), level, encoded.length,
+                        (double) document.length() / encoded.length, encodeMicros, decodeMicros);
+            }
+        }
+    }
+
+    /**
+     * Warms the operation up, then runs it for about half a second and returns the mean microseconds per run.
+     */
+    private static double measure(Runnable operation) {
+        for (int i = 0; i < 1_000; i++) {
+            operation.run();
+        }
+        long runs = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            operation.run();
+            ++runs;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < TARGET_NANOS);
+        return elapsed / 1_000.0 / runs;
+    }
+}
\ No newline at end of file
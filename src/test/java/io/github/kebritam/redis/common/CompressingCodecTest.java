@@ -0,0 +1,104 @@
+package io.github.kebritam.redis.common;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+class CompressingCodecTest {
+
+    private final ElementTranslator<String> elementTranslator = new ElementTranslator<>() {
+        @Override
+        public String serialize(String element) { return element; }
+        @Override
+        public String deserialize(String bytes) { return bytes; }
+    };
+
+    private final ElementCodec<String> codec = new CompressingCodec<>(ElementCodec.of(this.elementTranslator));
+
+    @Test
+    void smallElementsShouldBeStoredPlain() {
+        byte[] encoded = this.codec.encode("small element");
+
+        Assertions.assertEquals("small element".length() + 1, encoded.length);
+        Assertions.assertEquals("small element", this.codec.decode(encoded));
+    }
+
+    @Test
+    void largeElementsShouldBeCompressed() {
+        String document = jsonDocument(20_000);
+        byte[] encoded = this.codec.encode(document);
+
+        Assertions.assertTrue(encoded.length < document.length() / 4);
+        Assertions.assertEquals(document, this.codec.decode(encoded));
+    }
+
+    @Test
+    void incompressibleElementsShouldBeStoredPlain() {
+        byte[] random = new byte[4_096];
+        new Random(42).nextBytes(random);
+        ElementCodec<byte[]> rawCodec = new CompressingCodec<>(new ElementCodec<>() {
+            @Override
+            public void encode(byte[] element, OutputStream out) throws IOException { out.write(element); }
+            @Override
+            public byte[] decode(byte[] bytes) { return bytes; }
+        });
+
+        byte[] encoded = rawCodec.encode(random);
+
+        Assertions.assertEquals(random.length + 1, encoded.length);
+        Assertions.assertArrayEquals(random, rawCodec.decode(encoded));
+    }
+
+    @Test
+    void elementsOfDifferentSettingsShouldDecodeTogether() {
+        ElementCodec<String> alwaysCompressing =
+                new CompressingCodec<>(ElementCodec.of(this.elementTranslator), 0, Deflater.BEST_COMPRESSION);
+        String document = jsonDocument(2_000);
+
+        Assertions.assertEquals(document, this.codec.decode(alwaysCompressing.encode(document)));
+        Assertions.assertEquals("element", alwaysCompressing.decode(this.codec.encode("element")));
+    }
+
+    @Test
+    void unknownHeaderShouldBeRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.codec.decode(new byte[]{7, 1, 2}));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.codec.decode(new byte[]{1, 0, 0, 0, 9, 1}));
+    }
+
+    @Test
+    void corruptLengthsShouldBeRejected() {
+        byte[] encoded = this.codec.encode(jsonDocument(20_000));
+
+        byte[] negative = encoded.clone();
+        negative[1] = (byte) 0x80;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.codec.decode(negative));
+
+        byte[] huge = encoded.clone();
+        huge[1] = 0x7f;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.codec.decode(huge));
+
+        byte[] shorter = encoded.clone();
+        --shorter[4];
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.codec.decode(shorter));
+
+        byte[] longer = encoded.clone();
+        ++longer[4];
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.codec.decode(longer));
+    }
+
+    static String jsonDocument(int size) {
+        StringBuilder builder = new StringBuilder("[");
+        Random random = new Random(size);
+        for (int i = 0; builder.length() < size; i++) {
+            builder.append("{\"id\":").append(i)
+                    .append(",\"name\":\"user-").append(random.nextInt(1_000))
+                    .append("\",\"active\":").append(random.nextBoolean())
+                    .append(",\"score\":").append(random.nextInt(100_000)).append("},");
+        }
+        return builder.append("{}]").toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package io.github.kebritam.redis.distcollection;
+
+import com.redis.testcontainers.RedisStackContainer;
+import io.github.kebritam.redis.common.ElementTranslator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class BufferedQueueProducerTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    private final ElementTranslator<String> elementTranslator = new ElementTranslator<>() {
+        @Override
+        public String serialize(String element) { return element; }
+        @Override
+        public String deserialize(String bytes) { return bytes; }
+    };
+
+    private Queue<String> redisQueue;
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+        this.redisQueue = new DistributedQueue<>(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                this.elementTranslator);
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void flushShouldWriteEveryPushedElementInOrder() {
+        try (BufferedQueueProducer<String> producer = new BufferedQueueProducer<>(this.redisQueue)) {
+            for (int i = 0; i < 10_000; ++i) {
+                producer.push("element " + i);
+            }
+            producer.flush();
+
+            Assertions.assertEquals(10_000, this.redisQueue.size());
+            Assertions.assertEquals(0, producer.buffered());
+            for (int i = 0; i < 10_000; ++i) {
+                Assertions.assertEquals("element " + i, this.redisQueue.pollFirst());
+            }
+        }
+    }
+
+    @Test
+    void elementsShouldBeWrittenAfterLinger() throws InterruptedException {
+        try (BufferedQueueProducer<String> producer = new BufferedQueueProducer<>(
+                this.redisQueue, 512, Duration.ofMillis(20), 1_024, BufferedQueueProducer.OverflowPolicy.BLOCK)) {
+            producer.push("element 1");
+            Thread.sleep(500);
+
+            Assertions.assertEquals(1, this.redisQueue.size());
+        }
+    }
+
+    @Test
+    void concurrentPushesShouldAllBeWrittenWhenBlockingOnAFullBuffer() throws InterruptedException {
+        BufferedQueueProducer<String> producer = new BufferedQueueProducer<>(
+                this.redisQueue, 64, Duration.ofMillis(5), 128, BufferedQueueProducer.OverflowPolicy.BLOCK);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 3; ++t) {
+            int thread = t;
+            threads.add(Thread.startVirtualThread(() -> {
+                for (int i = 0; i < 5_000; ++i) {
+                    producer.push(thread + "_element " + i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        producer.close();
+
+        Assertions.assertEquals(15_000, this.redisQueue.size());
+        Assertions.assertEquals(15_000, new HashSet<>(this.redisQueue.pollBatch(15_000)).size());
+    }
+
+    @Test
+    void fullBufferShouldDropOrFailByPolicy() {
+        try (BufferedQueueProducer<String> dropping = new BufferedQueueProducer<>(
+                this.redisQueue, 512, Duration.ofMinutes(1), 4, BufferedQueueProducer.OverflowPolicy.DROP)) {
+            for (int i = 0; i < 4; ++i) {
+                Assertions.assertTrue(dropping.push("element " + i));
+            }
+            Assertions.assertFalse(dropping.push("element 4"));
+        }
+        Assertions.assertEquals(4, this.redisQueue.size());
+
+        try (BufferedQueueProducer<String> failing = new BufferedQueueProducer<>(
+                this.redisQueue, 512, Duration.ofMinutes(1), 4, BufferedQueueProducer.OverflowPolicy.FAIL)) {
+            for (int i = 0; i < 4; ++i) {
+                failing.push("element " + i);
+            }
+            Assertions.assertThrows(IllegalStateException.class, () -> failing.push("element 4"));
+        }
+    }
+
+    @Test
+    void pushAfterCloseShouldFail() {
+        BufferedQueueProducer<String> producer = new BufferedQueueProducer<>(this.redisQueue);
+        producer.push("element 1");
+        producer.close();
+
+        Assertions.assertEquals(1, this.redisQueue.size());
+        Assertions.assertThrows(IllegalStateException.class, () -> producer.push("element 2"));
+    }
+
+    @Test
+    void pushesRacingCloseShouldBeWrittenOrFail() throws InterruptedException {
+        BufferedQueueProducer<String> producer = new BufferedQueueProducer<>(this.redisQueue);
+        AtomicInteger accepted = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; ++t) {
+            int thread = t;
+            threads.add(Thread.startVirtualThread(() -> {
+                try {
+                    for (int i = 0; ; ++i) {
+                        producer.push(thread + "_element " + i);
+                        accepted.incrementAndGet();
+                    }
+                } catch (IllegalStateException ex) {
+                    // Closed.
+                }
+            }));
+        }
+        Thread.sleep(100);
+        producer.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(accepted.get(), this.redisQueue.size());
+    }
+}
\ No newline at end of file
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.utility.DockerImageName;
 
+import java.util.List;
+
 class DistQueueSizedTest {
     private static final RedisStackContainer container
             = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
@@ -108,4 +110,22 @@ class DistQueueSizedTest {
 
         Assertions.assertEquals(4, this.redisQueue.size());
     }
+
+    @Test
+    void pushAllShouldDropOldestElementsBeyondMaxSize() {
+        this.redisQueue.pushAll(List.of("element 1", "element 2", "element 3", "element 4", "element 5", "element 6"));
+
+        Assertions.assertEquals(List.of("element 3", "element 4", "element 5", "element 6"),
+                this.redisQueue.pollBatch(10));
+    }
+
+    @Test
+    void offerAllShouldAddOnlyElementsWhichFit() {
+        this.redisQueue.offerLast("element 1");
+
+        Assertions.assertEquals(3, this.redisQueue.offerAll(List.of("element 2", "element 3", "element 4", "element 5")));
+        Assertions.assertEquals(0, this.redisQueue.offerAll(List.of("element 6")));
+        Assertions.assertEquals(List.of("element 1", "element 2", "element 3", "element 4"),
+                this.redisQueue.pollBatch(10));
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package io.github.kebritam.redis.distcollection;
 
 import com.redis.testcontainers.RedisStackContainer;
+import io.github.kebritam.redis.common.ElementCodec;
 import io.github.kebritam.redis.common.ElementTranslator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -9,6 +10,13 @@ import org.junit.jupiter.api.Test;
 import org.testcontainers.utility.DockerImageName;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 class DistQueueTest {
     private static final RedisStackContainer container
             = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
@@ -78,6 +86,16 @@ class DistQueueTest {
         popThread.interrupt();
     }
 
+    @Test
+    void timedPopFirstShouldGiveUpAfterTheTimeout() {
+        long start = System.nanoTime();
+        Assertions.assertNull(this.redisQueue.popFirst(Duration.ofMillis(200)));
+        Assertions.assertTrue(System.nanoTime() - start >= Duration.ofMillis(200).toNanos());
+
+        this.redisQueue.pushLast("element 1");
+        Assertions.assertEquals("element 1", this.redisQueue.popFirst(Duration.ofSeconds(1)));
+    }
+
     @Test
     void pollFirstShouldReturnTheLatestElement() {
         this.redisQueue.pushLast("element 1");
@@ -127,4 +145,49 @@ class DistQueueTest {
 
         Assertions.assertEquals(15_000, this.redisQueue.size());
     }
+
+    @Test
+    void pushAllShouldKeepOrderAndPollBatchShouldReturnOldestFirst() {
+        this.redisQueue.pushAll(List.of("element 1", "element 2", "element 3", "element 4"));
+
+        Assertions.assertEquals(4, this.redisQueue.size());
+        Assertions.assertEquals(List.of("element 1", "element 2", "element 3"), this.redisQueue.pollBatch(3));
+        Assertions.assertEquals(List.of("element 4"), this.redisQueue.pollBatch(3));
+        Assertions.assertEquals(List.of(), this.redisQueue.pollBatch(3));
+    }
+
+    @Test
+    void drainToShouldMoveAtMostMaxElements() {
+        List<String> elements = new ArrayList<>();
+        for (int i = 0; i < 5_000; ++i) {
+            elements.add("element " + i);
+        }
+        this.redisQueue.pushAll(elements);
+
+        List<String> drained = new ArrayList<>();
+        Assertions.assertEquals(4_000, this.redisQueue.drainTo(drained, 4_000));
+        Assertions.assertEquals(elements.subList(0, 4_000), drained);
+        Assertions.assertEquals(1_000, this.redisQueue.size());
+    }
+
+    @Test
+    void binaryElementsShouldBeStoredAsIs() {
+        ElementCodec<byte[]> rawCodec = new ElementCodec<>() {
+            @Override
+            public void encode(byte[] element, OutputStream out) throws IOException { out.write(element); }
+            @Override
+            public byte[] decode(byte[] bytes) { return bytes; }
+        };
+        Queue<byte[]> binaryQueue = new DistributedQueue<>(
+                container.getRedisHost() + ":" + container.getRedisPort(), rawCodec);
+        byte[] element = {0, (byte) 0xff, (byte) 0xc3, 0x28, 10};
+
+        binaryQueue.pushLast(element);
+        binaryQueue.pushAll(List.of(new byte[0], element));
+
+        Assertions.assertEquals(3, binaryQueue.size());
+        for (byte[] polled : binaryQueue.pollBatch(3)) {
+            Assertions.assertTrue(polled.length == 0 || Arrays.equals(element, polled));
+        }
+    }
 }
\ No newline at end of file
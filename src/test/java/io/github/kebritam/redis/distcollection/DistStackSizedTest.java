@@ -8,6 +8,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.utility.DockerImageName;
 
+import java.util.List;
+
 class DistStackSizedTest {
 
     private static final RedisStackContainer container
@@ -109,4 +111,21 @@ class DistStackSizedTest {
 
         Assertions.assertEquals(4, this.redisStack.size());
     }
+
+    @Test
+    void pushAllShouldDropOldestElementsBeyondMaxSize() {
+        this.redisStack.pushAll(List.of("element 1", "element 2", "element 3", "element 4", "element 5", "element 6"));
+
+        Assertions.assertEquals(List.of("element 6", "element 5", "element 4", "element 3"),
+                this.redisStack.pollBatch(10));
+    }
+
+    @Test
+    void offerAllShouldAddOnlyElementsWhichFit() {
+        Assertions.assertEquals(4, this.redisStack.offerAll(
+                List.of("element 1", "element 2", "element 3", "element 4", "element 5")));
+
+        Assertions.assertFalse(this.redisStack.offerFirst("element 6"));
+        Assertions.assertEquals("element 4", this.redisStack.peekFirst());
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package io.github.kebritam.redis.distcollection;
 
 import com.redis.testcontainers.RedisStackContainer;
+import io.github.kebritam.redis.common.ElementCodec;
 import io.github.kebritam.redis.common.ElementTranslator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -9,6 +10,12 @@ import org.junit.jupiter.api.Test;
 import org.testcontainers.utility.DockerImageName;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 class DistStackTest {
 
     private static final RedisStackContainer container
@@ -133,4 +140,44 @@ class DistStackTest {
 
         Assertions.assertEquals(15_000, this.redisStack.size());
     }
+
+    @Test
+    void pollBatchShouldReturnLastPushedFirst() {
+        this.redisStack.pushAll(List.of("element 1", "element 2", "element 3", "element 4"));
+
+        Assertions.assertEquals(4, this.redisStack.size());
+        Assertions.assertEquals(List.of("element 4", "element 3", "element 2"), this.redisStack.pollBatch(3));
+        Assertions.assertEquals("element 1", this.redisStack.pollFirst());
+    }
+
+    @Test
+    void drainToShouldMoveAtMostMaxElements() {
+        this.redisStack.pushAll(List.of("element 1", "element 2", "element 3"));
+
+        List<String> drained = new ArrayList<>();
+        Assertions.assertEquals(2, this.redisStack.drainTo(drained, 2));
+        Assertions.assertEquals(List.of("element 3", "element 2"), drained);
+        Assertions.assertEquals(1, this.redisStack.size());
+    }
+
+    @Test
+    void binaryElementsShouldBeStoredAsIs() {
+        ElementCodec<byte[]> rawCodec = new ElementCodec<>() {
+            @Override
+            public void encode(byte[] element, OutputStream out) throws IOException { out.write(element); }
+            @Override
+            public byte[] decode(byte[] bytes) { return bytes; }
+        };
+        Stack<byte[]> binaryStack = new DistributedStack<>(
+                container.getRedisHost() + ":" + container.getRedisPort(), rawCodec);
+        byte[] element = {0, (byte) 0xff, (byte) 0xc3, 0x28, 10};
+
+        binaryStack.pushFirst(element);
+        binaryStack.pushAll(List.of(new byte[0], element));
+
+        Assertions.assertEquals(3, binaryStack.size());
+        for (byte[] polled : binaryStack.pollBatch(3)) {
+            Assertions.assertTrue(polled.length == 0 || Arrays.equals(element, polled));
+        }
+    }
 }
\ No newline at end of file
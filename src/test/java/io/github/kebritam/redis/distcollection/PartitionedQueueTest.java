@@ -0,0 +1,166 @@
+package io.github.kebritam.redis.distcollection;
+
+import com.redis.testcontainers.RedisStackContainer;
+import io.github.kebritam.redis.common.ElementCodec;
+import io.github.kebritam.redis.common.ElementTranslator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+class PartitionedQueueTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    private final ElementTranslator<String> elementTranslator = new ElementTranslator<>() {
+        @Override
+        public String serialize(String element) { return element; }
+        @Override
+        public String deserialize(String bytes) { return bytes; }
+    };
+
+    private List<String> addresses;
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+        String address = container.getRedisHost() + ":" + container.getRedisPort();
+        this.addresses = Collections.nCopies(4, address);
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void roundRobinShouldSpreadElementsEvenly() {
+        PartitionedQueue<String> queue =
+                new PartitionedQueue<>(this.addresses, this.elementTranslator, Partitioner.roundRobin());
+
+        for (int i = 0; i < 100; ++i) {
+            queue.pushLast("element " + i);
+        }
+
+        Assertions.assertEquals(List.of(25L, 25L, 25L, 25L), queue.partitionSizes());
+        Assertions.assertEquals(100, queue.size());
+        Assertions.assertEquals(100, queue.pollBatch(200).size());
+        Assertions.assertNull(queue.pollFirst());
+    }
+
+    @Test
+    void elementsOfOneKeyShouldKeepTheirOrder() {
+        PartitionedQueue<String> queue = new PartitionedQueue<>(this.addresses, this.elementTranslator,
+                Partitioner.byKey(element -> element.substring(0, element.indexOf(':'))));
+
+        List<String> elements = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            elements.add("key" + (i % 7) + ":" + i);
+        }
+        queue.pushAll(elements);
+
+        Map<String, Integer> lastSeen = new HashMap<>();
+        String element;
+        while ((element = queue.pollFirst()) != null) {
+            String key = element.substring(0, element.indexOf(':'));
+            int sequence = Integer.parseInt(element.substring(element.indexOf(':') + 1));
+            Assertions.assertTrue(sequence > lastSeen.getOrDefault(key, -1));
+            lastSeen.put(key, sequence);
+        }
+        Assertions.assertEquals(7, lastSeen.size());
+    }
+
+    @Test
+    void consumerShouldStealWhenItsOwnPartitionsAreEmpty() {
+        PartitionedQueue<String> queue = new PartitionedQueue<>(this.addresses, this.elementTranslator,
+                (element, partitions) -> 0);
+        queue.pushAll(List.of("element 1", "element 2", "element 3"));
+
+        PartitionedQueue<String>.StripeConsumer owner = queue.consumer(0, 2);
+        PartitionedQueue<String>.StripeConsumer thief = queue.consumer(1, 2);
+
+        Assertions.assertEquals("element 1", thief.pollFirst());
+        Assertions.assertEquals("element 2", owner.pollFirst());
+        Assertions.assertEquals(List.of("element 3"), thief.pollBatch(10));
+        Assertions.assertNull(owner.pollFirst());
+    }
+
+    @Test
+    void concurrentConsumersShouldTakeEveryElementOnce() throws InterruptedException {
+        PartitionedQueue<String> queue =
+                new PartitionedQueue<>(this.addresses, this.elementTranslator, Partitioner.roundRobin());
+        List<String> elements = new ArrayList<>();
+        for (int i = 0; i < 4_000; ++i) {
+            elements.add("element " + i);
+        }
+        queue.pushAll(elements);
+
+        List<String> consumed = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> consumers = new ArrayList<>();
+        for (int c = 0; c < 3; ++c) {
+            PartitionedQueue<String>.StripeConsumer consumer = queue.consumer(c, 3);
+            consumers.add(Thread.startVirtualThread(() -> {
+                List<String> batch;
+                while (!(batch = consumer.pollBatch(50)).isEmpty()) {
+                    consumed.addAll(batch);
+                }
+            }));
+        }
+        for (Thread consumer : consumers) {
+            consumer.join();
+        }
+
+        Assertions.assertEquals(4_000, consumed.size());
+        Assertions.assertEquals(4_000, new HashSet<>(consumed).size());
+    }
+
+    @Test
+    void partitionsOutOfRangeShouldBeRejected() {
+        PartitionedQueue<String> queue = new PartitionedQueue<>(this.addresses, this.elementTranslator,
+                (element, partitions) -> element.length() - 10);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> queue.pushLast("short"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> queue.pushAll(List.of("element 1", "a much longer element")));
+        Assertions.assertEquals(0, queue.size());
+    }
+
+    @Test
+    void clientsOfTheSameNameShouldShareThePartitions() {
+        try (PartitionedQueue<String> producer = new PartitionedQueue<>(this.addresses, "orders",
+                ElementCodec.of(this.elementTranslator), -1, Partitioner.roundRobin());
+             PartitionedQueue<String> consumer = new PartitionedQueue<>(this.addresses, "orders",
+                     ElementCodec.of(this.elementTranslator), -1, Partitioner.roundRobin())) {
+
+            for (int i = 0; i < 100; ++i) {
+                producer.pushLast("element " + i);
+            }
+
+            Assertions.assertEquals(100, consumer.size());
+            Assertions.assertEquals(100, new HashSet<>(consumer.pollBatch(100)).size());
+        }
+    }
+
+    @Test
+    void closingShouldLeavePartitionsOfTheCallerOpen() {
+        String address = container.getRedisHost() + ":" + container.getRedisPort();
+        List<DistributedQueue<String>> partitions = List.of(
+                new DistributedQueue<>(address, "orders:0", ElementCodec.of(this.elementTranslator), -1),
+                new DistributedQueue<>(address, "orders:1", ElementCodec.of(this.elementTranslator), -1));
+
+        try (PartitionedQueue<String> queue = new PartitionedQueue<>(partitions, Partitioner.roundRobin())) {
+            queue.pushAll(List.of("element 1", "element 2"));
+        }
+
+        Assertions.assertEquals(1, partitions.get(0).size());
+        Assertions.assertEquals(1, partitions.get(1).size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package io.github.kebritam.redis.distcollection;
+
+import com.redis.testcontainers.RedisStackContainer;
+import io.github.kebritam.redis.common.ElementTranslator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+class PrefetchingConsumerTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    private final ElementTranslator<String> elementTranslator = new ElementTranslator<>() {
+        @Override
+        public String serialize(String element) { return element; }
+        @Override
+        public String deserialize(String bytes) { return bytes; }
+    };
+
+    private Queue<String> redisQueue;
+    private Stack<String> redisStack;
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+        String address = container.getRedisHost() + ":" + container.getRedisPort();
+        this.redisQueue = new DistributedQueue<>(address, this.elementTranslator);
+        this.redisStack = new DistributedStack<>(address, this.elementTranslator);
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void queueElementsShouldBeConsumedInOrder() {
+        List<String> elements = new ArrayList<>();
+        for (int i = 0; i < 1_000; ++i) {
+            elements.add("element " + i);
+        }
+        this.redisQueue.pushAll(elements);
+
+        try (PrefetchingConsumer<String> consumer = new PrefetchingConsumer<>(this.redisQueue, 100, 25)) {
+            for (int i = 0; i < 1_000; ++i) {
+                Assertions.assertEquals("element " + i, consumer.pollFirst());
+            }
+            Assertions.assertNull(consumer.pollFirst());
+        }
+    }
+
+    @Test
+    void stackElementsShouldBeConsumedLastPushedFirst() {
+        this.redisStack.pushAll(List.of("element 1", "element 2", "element 3"));
+
+        try (PrefetchingConsumer<String> consumer = new PrefetchingConsumer<>(this.redisStack, 2, 0)) {
+            Assertions.assertEquals("element 3", consumer.pollFirst());
+            Assertions.assertEquals("element 2", consumer.pollFirst());
+            Assertions.assertEquals("element 1", consumer.pollFirst());
+        }
+    }
+
+    @Test
+    void closeShouldPutUnconsumedElementsBackInOrder() {
+        this.redisQueue.pushAll(List.of("element 1", "element 2", "element 3", "element 4"));
+
+        PrefetchingConsumer<String> consumer = new PrefetchingConsumer<>(this.redisQueue, 10, 0);
+        Assertions.assertEquals("element 1", consumer.pollFirst());
+        consumer.close();
+
+        Assertions.assertEquals(List.of("element 2", "element 3", "element 4"), this.redisQueue.pollBatch(10));
+        Assertions.assertThrows(IllegalStateException.class, consumer::pollFirst);
+    }
+
+    @Test
+    void closeShouldPutUnconsumedStackElementsBackOnTop() {
+        this.redisStack.pushAll(List.of("element 1", "element 2", "element 3", "element 4"));
+
+        PrefetchingConsumer<String> consumer = new PrefetchingConsumer<>(this.redisStack, 3, 0);
+        Assertions.assertEquals("element 4", consumer.pollFirst());
+        consumer.close();
+
+        Assertions.assertEquals(List.of("element 3", "element 2", "element 1"), this.redisStack.pollBatch(10));
+    }
+
+    @Test
+    void popFirstShouldWaitForAPush() throws InterruptedException {
+        try (PrefetchingConsumer<String> consumer = new PrefetchingConsumer<>(this.redisQueue)) {
+            Thread producer = Thread.startVirtualThread(() -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                this.redisQueue.pushLast("element 1");
+            });
+
+            Assertions.assertEquals("element 1", consumer.popFirst());
+            producer.join();
+        }
+    }
+
+    @Test
+    void closeShouldNotWaitForABlockedPop() throws InterruptedException {
+        PrefetchingConsumer<String> consumer = new PrefetchingConsumer<>(this.redisQueue);
+        Thread popper = Thread.startVirtualThread(() ->
+                Assertions.assertThrows(IllegalStateException.class, consumer::popFirst));
+        Thread.sleep(200);
+
+        long start = System.nanoTime();
+        consumer.close();
+        Assertions.assertTrue(System.nanoTime() - start < Duration.ofSeconds(3).toNanos());
+        popper.join();
+    }
+}
\ No newline at end of file
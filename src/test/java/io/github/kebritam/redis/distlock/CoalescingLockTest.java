@@ -0,0 +1,189 @@
+package io.github.kebritam.redis.distlock;
+
+import com.redis.testcontainers.RedisStackContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CoalescingLockTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void localThreadsShouldShareFewRedisAcquisitions() throws InterruptedException {
+        DistributedLock lock = new CoalescingLock(
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock"));
+        List<Integer> dataHolder = new ArrayList<>(200);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int finalI = i;
+            threads.add(Thread.startVirtualThread(() -> {
+                if (lock.lock(10_000, Duration.ofSeconds(30))) {
+                    dataHolder.add(finalI);
+                    lock.release();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(200, dataHolder.size());
+        Assertions.assertTrue(setCalls() < 50, () -> "SET was called " + setCalls() + " times");
+    }
+
+    @Test
+    void nodesShouldStillExcludeEachOther() throws InterruptedException {
+        AtomicInteger holders = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger acquired = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int node = 0; node < 2; node++) {
+            DistributedLock lock = new CoalescingLock(
+                    new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock"), 4);
+            for (int i = 0; i < 50; i++) {
+                threads.add(Thread.startVirtualThread(() -> {
+                    if (lock.lock(10_000, Duration.ofSeconds(30))) {
+                        if (holders.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        acquired.incrementAndGet();
+                        holders.decrementAndGet();
+                        lock.release();
+                    }
+                }));
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(100, acquired.get());
+        Assertions.assertEquals(0, overlaps.get());
+    }
+
+    @Test
+    void lockShouldBeReleasedInRedisWhenNoLocalThreadWaits() {
+        DistributedLock lock = new CoalescingLock(
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock"));
+        DistributedLock other =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+        Assertions.assertTrue(lock.lock(10_000));
+        Assertions.assertFalse(other.lock(10_000));
+        lock.release();
+        Assertions.assertTrue(other.lock(10_000));
+    }
+
+    @Test
+    void handoffShouldExtendTheLeaseWhenTooLittleIsLeft() throws InterruptedException {
+        DistributedLock lock = new CoalescingLock(
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock"));
+        DistributedLock other =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+        Assertions.assertTrue(lock.lock(500));
+        Thread waiter = Thread.startVirtualThread(() -> {
+            if (lock.lock(10_000, Duration.ofSeconds(5))) {
+                try {
+                    Thread.sleep(1_000);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                lock.release();
+            }
+        });
+        Thread.sleep(100);
+        lock.release();
+
+        Thread.sleep(700);
+        Assertions.assertFalse(other.lock(10_000));
+        waiter.join();
+        Assertions.assertTrue(other.lock(10_000));
+    }
+
+    @Test
+    void tryingShouldNotJumpAheadOfQueuedWaiters() throws InterruptedException {
+        DistributedLock lock = new CoalescingLock(
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock"));
+
+        Assertions.assertTrue(lock.lock(10_000));
+        Thread waiter = Thread.startVirtualThread(() -> {
+            if (lock.lock(10_000, Duration.ofSeconds(5))) {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                lock.release();
+            }
+        });
+        Thread.sleep(100);
+        lock.release();
+
+        Assertions.assertFalse(lock.lock(10_000));
+        waiter.join();
+    }
+
+    @Test
+    void interruptedWaitersShouldNotLeaveTheLockHeld() throws InterruptedException {
+        DistributedLock lock = new CoalescingLock(
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock"));
+        DistributedLock other =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+        lock.lockInterruptibly(30_000);
+        List<Thread> waiters = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            waiters.add(Thread.startVirtualThread(() -> {
+                try {
+                    lock.lockInterruptibly(30_000);
+                    lock.release();
+                } catch (InterruptedException ex) {
+                    // Expected for most waiters.
+                }
+            }));
+        }
+        Thread.sleep(100);
+        for (Thread waiter : waiters) {
+            waiter.interrupt();
+        }
+        lock.release();
+        for (Thread waiter : waiters) {
+            waiter.join();
+        }
+
+        Assertions.assertTrue(other.lock(10_000));
+    }
+
+    private static long setCalls() {
+        try (Jedis jedis = new Jedis(container.getRedisHost(), container.getRedisPort())) {
+            for (String line : jedis.info("commandstats").split("\r\n")) {
+                if (line.startsWith("cmdstat_set:")) {
+                    return Long.parseLong(line.substring(line.indexOf("calls=") + 6, line.indexOf(',')));
+                }
+            }
+            return 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+package io.github.kebritam.redis.distlock;
+
+import com.redis.testcontainers.RedisStackContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class LeasedSemaphoreTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void shouldNotGrantMoreThanMaxPermits() {
+        LeasedSemaphore semaphore1 = new LeasedSemaphore(
+                container.getRedisHost(), container.getRedisPort(), "db-pool", 10, Duration.ZERO);
+        LeasedSemaphore semaphore2 = new LeasedSemaphore(
+                container.getRedisHost(), container.getRedisPort(), "db-pool", 10, Duration.ZERO);
+
+        Assertions.assertTrue(semaphore1.tryAcquire(6, Duration.ofSeconds(10)));
+        Assertions.assertFalse(semaphore2.tryAcquire(5, Duration.ofSeconds(10)));
+        Assertions.assertTrue(semaphore2.tryAcquire(4, Duration.ofSeconds(10)));
+        Assertions.assertFalse(semaphore1.tryAcquire(1, Duration.ofSeconds(10)));
+
+        semaphore1.release(3);
+        Assertions.assertTrue(semaphore2.tryAcquire(3, Duration.ofSeconds(10)));
+        Assertions.assertFalse(semaphore2.tryAcquire(1, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void permitsOfCrashedHoldersShouldExpire() throws InterruptedException {
+        LeasedSemaphore crashed = new LeasedSemaphore(
+                container.getRedisHost(), container.getRedisPort(), "db-pool", 10, Duration.ZERO);
+        LeasedSemaphore semaphore = new LeasedSemaphore(
+                container.getRedisHost(), container.getRedisPort(), "db-pool", 10, Duration.ZERO);
+
+        Assertions.assertTrue(crashed.tryAcquire(10, Duration.ofMillis(300)));
+        Assertions.assertFalse(semaphore.tryAcquire(1, Duration.ofSeconds(10)));
+        Thread.sleep(400);
+        Assertions.assertTrue(semaphore.tryAcquire(10, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void cachedPermitsShouldBeReusedWithoutRoundTrips() {
+        LeasedSemaphore semaphore = new LeasedSemaphore(
+                container.getRedisHost(), container.getRedisPort(), "db-pool", 10, Duration.ofSeconds(5));
+
+        long callsBefore = functionCalls();
+        Assertions.assertTrue(semaphore.tryAcquire(2, Duration.ofSeconds(10)));
+        semaphore.release(2);
+        // Later tasks ask for shorter leases, so the cached lease covers them.
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertTrue(semaphore.tryAcquire(2, Duration.ofSeconds(1)));
+            semaphore.release(2);
+        }
+        Assertions.assertEquals(1, functionCalls() - callsBefore);
+    }
+
+    @Test
+    void cachedPermitsShouldBeGivenBackAfterCacheTime() throws InterruptedException {
+        LeasedSemaphore semaphore1 = new LeasedSemaphore(
+                container.getRedisHost(), container.getRedisPort(), "db-pool", 10, Duration.ofMillis(100));
+        LeasedSemaphore semaphore2 = new LeasedSemaphore(
+                container.getRedisHost(), container.getRedisPort(), "db-pool", 10, Duration.ofMillis(100));
+
+        Assertions.assertTrue(semaphore1.tryAcquire(10, Duration.ofSeconds(10)));
+        semaphore1.release(10);
+        Assertions.assertFalse(semaphore2.tryAcquire(1, Duration.ofSeconds(10)));
+
+        Thread.sleep(400);
+        Assertions.assertTrue(semaphore2.tryAcquire(10, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void instancesShouldNeverHoldMorePermitsTogetherThanMax() throws InterruptedException {
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger maxInUse = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int instance = 0; instance < 4; instance++) {
+            LeasedSemaphore semaphore = new LeasedSemaphore(
+                    container.getRedisHost(), container.getRedisPort(), "db-pool", 8, Duration.ofMillis(20));
+            for (int t = 0; t < 5; t++) {
+                threads.add(Thread.startVirtualThread(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        if (semaphore.tryAcquire(1, Duration.ofSeconds(10))) {
+                            maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                            inUse.decrementAndGet();
+                            semaphore.release(1);
+                        }
+                    }
+                }));
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertTrue(maxInUse.get() <= 8);
+    }
+
+    @Test
+    void releasingMorePermitsThanHeldShouldFail() {
+        LeasedSemaphore semaphore = new LeasedSemaphore(
+                container.getRedisHost(), container.getRedisPort(), "db-pool", 10);
+
+        Assertions.assertTrue(semaphore.tryAcquire(2, Duration.ofSeconds(10)));
+        Assertions.assertThrows(IllegalStateException.class, () -> semaphore.release(3));
+        semaphore.release(2);
+    }
+
+    @Test
+    void holdersLeftShouldBeBackedByTheLongestLeases() throws InterruptedException {
+        LeasedSemaphore semaphore = new LeasedSemaphore(
+                container.getRedisHost(), container.getRedisPort(), "db-pool", 2, Duration.ZERO);
+        LeasedSemaphore other = new LeasedSemaphore(
+                container.getRedisHost(), container.getRedisPort(), "db-pool", 2, Duration.ZERO);
+
+        Assertions.assertTrue(semaphore.tryAcquire(1, Duration.ofMillis(500)));
+        Assertions.assertTrue(semaphore.tryAcquire(1, Duration.ofSeconds(60)));
+        // The short task is done, and the long one still runs on what is left.
+        semaphore.release(1);
+        Thread.sleep(800);
+
+        Assertions.assertFalse(other.tryAcquire(2, Duration.ofSeconds(10)));
+        Assertions.assertTrue(other.tryAcquire(1, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void releasingPermitsOfExpiredLeasesShouldSucceed() throws InterruptedException {
+        LeasedSemaphore semaphore = new LeasedSemaphore(
+                container.getRedisHost(), container.getRedisPort(), "db-pool", 10, Duration.ZERO);
+
+        Assertions.assertTrue(semaphore.tryAcquire(2, Duration.ofMillis(200)));
+        Assertions.assertTrue(semaphore.tryAcquire(3, Duration.ofSeconds(10)));
+        Thread.sleep(400);
+
+        semaphore.release(2);
+        semaphore.release(3);
+        Assertions.assertThrows(IllegalStateException.class, () -> semaphore.release(1));
+        Assertions.assertTrue(semaphore.tryAcquire(10, Duration.ofSeconds(10)));
+    }
+
+    private static long functionCalls() {
+        try (Jedis jedis = new Jedis(container.getRedisHost(), container.getRedisPort())) {
+            for (String line : jedis.info("commandstats").split("\r\n")) {
+                if (line.startsWith("cmdstat_fcall:")) {
+                    return Long.parseLong(line.substring(line.indexOf("calls=") + 6, line.indexOf(',')));
+                }
+            }
+            return 0;
+        }
+    }
+}
\ No newline at end of file
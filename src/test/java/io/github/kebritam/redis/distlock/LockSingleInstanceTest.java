@@ -7,8 +7,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.utility.DockerImageName;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 class LockSingleInstanceTest {
     private static final RedisStackContainer container
@@ -99,4 +102,121 @@ class LockSingleInstanceTest {
         boolean result = lock2.lock(1_000);
         Assertions.assertTrue(result);
     }
+
+    @Test
+    void watchdogShouldKeepTheLockUntilItIsReleased() throws InterruptedException {
+        DistributedLock lock1 = new LockSingleInstance(
+                container.getRedisHost(), container.getRedisPort(), "dist-lock", Duration.ofMillis(600));
+        DistributedLock lock2 =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+        Assertions.assertTrue(lock1.lock());
+        Thread.sleep(2_000);
+        Assertions.assertFalse(lock2.lock(10_000));
+
+        lock1.release();
+        Assertions.assertTrue(lock2.lock(10_000));
+    }
+
+    @Test
+    void watchdogShouldStopExtendingAfterRelease() throws InterruptedException {
+        DistributedLock lock1 = new LockSingleInstance(
+                container.getRedisHost(), container.getRedisPort(), "dist-lock", Duration.ofMillis(600));
+        DistributedLock lock2 =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+        Assertions.assertTrue(lock1.lock());
+        lock1.release();
+        Assertions.assertTrue(lock2.lock(300));
+        Thread.sleep(400);
+        Assertions.assertTrue(lock1.lock(10_000));
+    }
+
+    @Test
+    void extendShouldOnlyExtendOwnedLocks() throws InterruptedException {
+        DistributedLock lock1 =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        DistributedLock lock2 =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+        Assertions.assertTrue(lock1.lock(200));
+        Assertions.assertTrue(lock1.extend(10_000));
+        Assertions.assertFalse(lock2.extend(10_000));
+        Thread.sleep(300);
+        Assertions.assertFalse(lock2.lock(10_000));
+    }
+
+    @Test
+    void waiterShouldBeWokenWhenTheLockIsReleased() throws InterruptedException {
+        DistributedLock lock1 =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        DistributedLock lock2 =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        Assertions.assertTrue(lock1.lock(20_000));
+
+        AtomicLong acquiredAt = new AtomicLong();
+        Thread waiter = Thread.startVirtualThread(() -> {
+            if (lock2.lock(20_000, Duration.ofSeconds(10))) {
+                acquiredAt.set(System.nanoTime());
+            }
+        });
+
+        // Let the polling backoff of the waiter grow, so only the notification can wake it quickly.
+        Thread.sleep(2_000);
+        long releasedAt = System.nanoTime();
+        lock1.release();
+        waiter.join();
+
+        Assertions.assertNotEquals(0, acquiredAt.get());
+        Assertions.assertTrue(acquiredAt.get() - releasedAt < Duration.ofMillis(200).toNanos());
+    }
+
+    @Test
+    void waiterShouldAcquireTheLockAfterItExpires() {
+        DistributedLock lock1 =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        DistributedLock lock2 =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+        Assertions.assertTrue(lock1.lock(500));
+        Assertions.assertTrue(lock2.lock(10_000, Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void waitShouldGiveUpAfterMaxWait() {
+        DistributedLock lock1 =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        DistributedLock lock2 =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        Assertions.assertTrue(lock1.lock(20_000));
+
+        long start = System.nanoTime();
+        Assertions.assertFalse(lock2.lock(20_000, Duration.ofMillis(300)));
+        long elapsed = System.nanoTime() - start;
+        Assertions.assertTrue(elapsed >= Duration.ofMillis(300).toNanos());
+        Assertions.assertTrue(elapsed < Duration.ofMillis(1_000).toNanos());
+    }
+
+    @Test
+    void lockInterruptiblyShouldStopWaitingWhenInterrupted() throws InterruptedException {
+        DistributedLock lock1 =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        DistributedLock lock2 =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        Assertions.assertTrue(lock1.lock(20_000));
+
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread waiter = Thread.startVirtualThread(() -> {
+            try {
+                lock2.lockInterruptibly(20_000);
+            } catch (InterruptedException ex) {
+                interrupted.set(true);
+            }
+        });
+        Thread.sleep(200);
+        waiter.interrupt();
+        waiter.join();
+
+        Assertions.assertTrue(interrupted.get());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package io.github.kebritam.redis.distlock;
+
+import com.redis.testcontainers.RedisStackContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+import redis.clients.jedis.HostAndPort;
+
+import java.time.Duration;
+import java.util.Set;
+
+class LockStatsTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void acquisitionsAndHoldTimesShouldBeRecorded() throws InterruptedException {
+        LockStats stats = new LockStats();
+        DistributedLock lock = new LockSingleInstance(container.getRedisHost(), container.getRedisPort(),
+                "stats-lock", LockWatchdog.DEFAULT_LEASE, stats);
+        DistributedLock other = new LockSingleInstance(container.getRedisHost(), container.getRedisPort(),
+                "stats-lock", LockWatchdog.DEFAULT_LEASE, stats);
+
+        Assertions.assertTrue(lock.lock(10_000));
+        Assertions.assertFalse(other.lock(10_000));
+        Thread.sleep(50);
+        lock.release();
+
+        Assertions.assertEquals(1, stats.acquired());
+        Assertions.assertEquals(1, stats.failed());
+        Assertions.assertEquals(0, stats.expired());
+        Assertions.assertEquals(2, stats.acquireLatency().count());
+        Assertions.assertEquals(1, stats.holdTimes().count());
+        Assertions.assertTrue(stats.holdTimes().valueAtPercentile(50) >= Duration.ofMillis(40).toNanos());
+        Assertions.assertEquals(2, stats.nodeRoundTrips()
+                .get(new HostAndPort(container.getRedisHost(), container.getRedisPort())).count());
+    }
+
+    @Test
+    void releasingAnExpiredLockShouldCountAsExpired() throws InterruptedException {
+        LockStats stats = new LockStats();
+        DistributedLock lock = new LockSingleInstance(container.getRedisHost(), container.getRedisPort(),
+                "stats-lock", LockWatchdog.DEFAULT_LEASE, stats);
+
+        Assertions.assertTrue(lock.lock(100));
+        Thread.sleep(300);
+        lock.release();
+
+        Assertions.assertEquals(1, stats.expired());
+    }
+
+    @Test
+    void redLockShouldRecordEveryNodeRoundTrip() {
+        LockStats stats = new LockStats();
+        HostAndPort node = new HostAndPort(container.getRedisHost(), container.getRedisPort());
+        DistributedLock lock = new RedLock(Set.of(node), "stats-lock", Duration.ofSeconds(2),
+                LockWatchdog.DEFAULT_LEASE, stats);
+
+        Assertions.assertTrue(lock.lock(10_000));
+        lock.release();
+
+        Assertions.assertEquals(1, stats.acquired());
+        Assertions.assertEquals(0, stats.expired());
+        Assertions.assertEquals(1, stats.holdTimes().count());
+        Assertions.assertEquals(2, stats.nodeRoundTrips().get(node).count());
+        Assertions.assertEquals(0, stats.nodeFailures());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package io.github.kebritam.redis.distlock;
+
+import com.redis.testcontainers.RedisStackContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+class MultiLockTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void shouldLockAllNamesOrNone() {
+        DistributedLock single =
+                new LockSingleInstance(container.getRedisHost(), container.getRedisPort(), "entity-2");
+        DistributedLock multi = new MultiLock(container.getRedisHost(), container.getRedisPort(),
+                List.of("entity-1", "entity-2", "entity-3"));
+
+        Assertions.assertTrue(single.lock(10_000));
+        Assertions.assertFalse(multi.lock(10_000));
+        Assertions.assertTrue(new LockSingleInstance(
+                container.getRedisHost(), container.getRedisPort(), "entity-1").lock(100));
+
+        single.release();
+        Assertions.assertFalse(multi.lock(10_000));
+        Assertions.assertTrue(multi.lock(10_000, Duration.ofSeconds(1)));
+        Assertions.assertFalse(new LockSingleInstance(
+                container.getRedisHost(), container.getRedisPort(), "entity-3").lock(10_000));
+
+        multi.release();
+        Assertions.assertTrue(new LockSingleInstance(
+                container.getRedisHost(), container.getRedisPort(), "entity-3").lock(10_000));
+    }
+
+    @Test
+    void shouldLockHundredsOfNamesInOneCall() {
+        List<String> names = IntStream.range(0, 500).mapToObj(i -> "entity-" + i).toList();
+        DistributedLock multi = new MultiLock(container.getRedisHost(), container.getRedisPort(), names);
+        DistributedLock other = new MultiLock(container.getRedisHost(), container.getRedisPort(),
+                List.of("entity-499", "entity-500"));
+
+        Assertions.assertTrue(multi.lock(10_000));
+        Assertions.assertTrue(multi.extend(20_000));
+        Assertions.assertFalse(other.lock(10_000));
+        multi.release();
+        Assertions.assertTrue(other.lock(10_000));
+    }
+
+    @Test
+    void overlappingLocksShouldNotDeadlock() throws InterruptedException {
+        List<Integer> dataHolder = new ArrayList<>(200);
+
+        List<Thread> threads = new ArrayList<>();
+        for (List<String> names : List.of(List.of("a", "b", "c"), List.of("c", "b"), List.of("b", "a"))) {
+            threads.add(Thread.startVirtualThread(() -> {
+                DistributedLock lock = new MultiLock(container.getRedisHost(), container.getRedisPort(), names);
+                for (int i = 0; i < 50;) {
+                    if (lock.lock(10_000, Duration.ofSeconds(10))) {
+                        dataHolder.add(i);
+                        lock.release();
+                        ++i;
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(150, dataHolder.size());
+    }
+
+    @Test
+    void watchedLocksShouldUseTheConfiguredLease() throws InterruptedException {
+        DistributedLock multi = new MultiLock(
+                Set.of(new HostAndPort(container.getRedisHost(), container.getRedisPort())),
+                List.of("entity-1", "entity-2"), LockNodes.DEFAULT_TIMEOUT, Duration.ofSeconds(1));
+
+        Assertions.assertTrue(multi.lock());
+        try (Jedis jedis = new Jedis(container.getRedisHost(), container.getRedisPort())) {
+            Assertions.assertTrue(jedis.pttl("entity-1") <= 1_000);
+        }
+        // The watchdog keeps extending the short lease.
+        Thread.sleep(2_500);
+        Assertions.assertFalse(new LockSingleInstance(
+                container.getRedisHost(), container.getRedisPort(), "entity-2").lock(10_000));
+
+        multi.release();
+        Assertions.assertTrue(new LockSingleInstance(
+                container.getRedisHost(), container.getRedisPort(), "entity-2").lock(10_000));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package io.github.kebritam.redis.distlock;
+
+import com.redis.testcontainers.RedisStackContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+
+import redis.clients.jedis.HostAndPort;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ReadWriteDistributedLockTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void readersShouldShareTheLock() {
+        ReadWriteDistributedLock lock1 =
+                new ReadWriteDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        ReadWriteDistributedLock lock2 =
+                new ReadWriteDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+        Assertions.assertTrue(lock1.readLock().lock(10_000));
+        Assertions.assertTrue(lock2.readLock().lock(10_000));
+        Assertions.assertFalse(lock2.writeLock().lock(10_000));
+
+        lock1.readLock().release();
+        Assertions.assertFalse(lock1.writeLock().lock(10_000));
+        lock2.readLock().release();
+        Assertions.assertTrue(lock1.writeLock().lock(10_000));
+    }
+
+    @Test
+    void writerShouldExcludeEveryoneElse() {
+        ReadWriteDistributedLock lock1 =
+                new ReadWriteDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        ReadWriteDistributedLock lock2 =
+                new ReadWriteDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+        Assertions.assertTrue(lock1.writeLock().lock(10_000));
+        Assertions.assertFalse(lock2.readLock().lock(10_000));
+        Assertions.assertFalse(lock2.writeLock().lock(10_000));
+
+        // The writer may also read and reenter.
+        Assertions.assertTrue(lock1.readLock().lock(10_000));
+        Assertions.assertTrue(lock1.writeLock().lock(10_000));
+        lock1.writeLock().release();
+        lock1.readLock().release();
+        Assertions.assertFalse(lock2.readLock().lock(10_000));
+
+        lock1.writeLock().release();
+        Assertions.assertTrue(lock2.readLock().lock(10_000));
+    }
+
+    @Test
+    void waitingWriterShouldGetTheLockWhenReadersLeave() throws InterruptedException {
+        ReadWriteDistributedLock lock1 =
+                new ReadWriteDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        ReadWriteDistributedLock lock2 =
+                new ReadWriteDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        Assertions.assertTrue(lock1.readLock().lock(10_000));
+
+        AtomicLong acquiredAt = new AtomicLong();
+        Thread writer = Thread.startVirtualThread(() -> {
+            if (lock2.writeLock().lock(10_000, Duration.ofSeconds(5))) {
+                acquiredAt.set(System.nanoTime());
+            }
+        });
+
+        Thread.sleep(1_000);
+        Assertions.assertEquals(0, acquiredAt.get());
+        long releasedAt = System.nanoTime();
+        lock1.readLock().release();
+        writer.join();
+
+        Assertions.assertNotEquals(0, acquiredAt.get());
+        Assertions.assertTrue(acquiredAt.get() - releasedAt < Duration.ofMillis(200).toNanos());
+    }
+
+    @Test
+    void watchedHoldsShouldShareOneLeaseAcrossViews() throws InterruptedException {
+        Set<HostAndPort> nodes = Set.of(new HostAndPort(container.getRedisHost(), container.getRedisPort()));
+        ReadWriteDistributedLock lock1 =
+                new ReadWriteDistributedLock(nodes, "dist-lock", LockNodes.DEFAULT_TIMEOUT, Duration.ofSeconds(1));
+        ReadWriteDistributedLock lock2 =
+                new ReadWriteDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+        Assertions.assertTrue(lock1.writeLock().lock());
+        Assertions.assertTrue(lock1.readLock().lock());
+        lock1.writeLock().release();
+
+        // The read hold is still covered by the lease the write lock started, well past its one second.
+        Thread.sleep(2_500);
+        Assertions.assertFalse(lock2.writeLock().lock(10_000));
+
+        lock1.readLock().release();
+        Assertions.assertTrue(lock2.writeLock().lock(10_000));
+    }
+}
\ No newline at end of file
@@ -50,7 +50,7 @@ class RedLockTest {
                     new RedLock(addresses, "dist-lock", Duration.ofMillis(5));
 
             for (int i = 0; i < 100;) {
-                if (lock.lock(10_000)) {
+                if (lock.lock(10_000, Duration.ofSeconds(10))) {
                     dataHolder.add(i);
                     lock.release();
                     ++i;
@@ -63,7 +63,7 @@ class RedLockTest {
                     new RedLock(addresses, "dist-lock", Duration.ofMillis(5));
 
             for (int i = 0; i < 100;) {
-                if (lock.lock(10_000)) {
+                if (lock.lock(10_000, Duration.ofSeconds(10))) {
                     dataHolder.add(i);
                     lock.release();
                     ++i;
@@ -76,7 +76,7 @@ class RedLockTest {
                     new RedLock(addresses, "dist-lock", Duration.ofMillis(5));
 
             for (int i = 0; i < 100;) {
-                if (lock.lock(10_000)) {
+                if (lock.lock(10_000, Duration.ofSeconds(10))) {
                     dataHolder.add(i);
                     lock.release();
                     ++i;
@@ -116,4 +116,142 @@ class RedLockTest {
         boolean result = lock2.lock(1_000);
         Assertions.assertTrue(result);
     }
+
+    @Test
+    void lockShouldBeAcquiredWhenMinorityOfNodesIsDown() {
+        DistributedLock lock =
+                new RedLock(addresses, "dist-lock", Duration.ofMillis(100));
+        containers.iterator().next().close();
+
+        long start = System.nanoTime();
+        Assertions.assertTrue(lock.lock(10_000));
+        Assertions.assertTrue(System.nanoTime() - start < Duration.ofMillis(200).toNanos());
+        lock.release();
+    }
+
+    @Test
+    void lockShouldNotBeAcquiredWhenMajorityOfNodesIsDown() {
+        DistributedLock lock =
+                new RedLock(addresses, "dist-lock", Duration.ofMillis(100));
+
+        int closed = 0;
+        for (RedisStackContainer container : containers) {
+            if (closed++ < 2) {
+                container.close();
+            }
+        }
+        Assertions.assertFalse(lock.lock(10_000));
+    }
+
+    @Test
+    void lockShouldFailWhenAcquiringTakesLongerThanTheLockIsValid() {
+        DistributedLock lock =
+                new RedLock(addresses, "dist-lock", Duration.ofMillis(100));
+
+        // Clock drift compensation alone leaves no validity for such a short lock.
+        Assertions.assertFalse(lock.lock(2));
+
+        DistributedLock other =
+                new RedLock(addresses, "dist-lock", Duration.ofMillis(100));
+        Assertions.assertTrue(other.lock(10_000));
+    }
+
+    @Test
+    void watchdogShouldKeepTheLockUntilItIsReleased() throws InterruptedException {
+        DistributedLock lock1 =
+                new RedLock(addresses, "dist-lock", Duration.ofMillis(100), Duration.ofMillis(600));
+        DistributedLock lock2 =
+                new RedLock(addresses, "dist-lock", Duration.ofMillis(100));
+
+        Assertions.assertTrue(lock1.lock());
+        Thread.sleep(2_000);
+        Assertions.assertFalse(lock2.lock(10_000));
+
+        lock1.release();
+        Assertions.assertTrue(lock2.lock(10_000));
+    }
+
+    @Test
+    void extendShouldOnlyExtendOwnedLocks() throws InterruptedException {
+        DistributedLock lock1 =
+                new RedLock(addresses, "dist-lock", Duration.ofMillis(100));
+        DistributedLock lock2 =
+                new RedLock(addresses, "dist-lock", Duration.ofMillis(100));
+
+        Assertions.assertTrue(lock1.lock(200));
+        Assertions.assertTrue(lock1.extend(10_000));
+        Assertions.assertFalse(lock2.extend(10_000));
+        Thread.sleep(300);
+        Assertions.assertFalse(lock2.lock(10_000));
+    }
+
+    @Test
+    void reentrantLockShouldWorkWithQuorum() {
+        DistributedLock lock =
+                new ReentrantDistributedLock(addresses, "dist-lock", Duration.ofMillis(100));
+        DistributedLock other =
+                new ReentrantDistributedLock(addresses, "dist-lock", Duration.ofMillis(100));
+        containers.iterator().next().close();
+
+        Assertions.assertTrue(lock.lock(10_000));
+        Assertions.assertTrue(lock.lock(10_000));
+        Assertions.assertFalse(other.lock(10_000));
+        lock.release();
+        Assertions.assertFalse(other.lock(10_000));
+        lock.release();
+        Assertions.assertTrue(other.lock(10_000));
+    }
+
+    @Test
+    void readWriteLockShouldWorkWithQuorum() {
+        ReadWriteDistributedLock lock1 =
+                new ReadWriteDistributedLock(addresses, "dist-lock", Duration.ofMillis(100));
+        ReadWriteDistributedLock lock2 =
+                new ReadWriteDistributedLock(addresses, "dist-lock", Duration.ofMillis(100));
+
+        Assertions.assertTrue(lock1.readLock().lock(10_000));
+        Assertions.assertTrue(lock2.readLock().lock(10_000));
+        Assertions.assertFalse(lock2.writeLock().lock(10_000));
+        lock1.readLock().release();
+        lock2.readLock().release();
+        Assertions.assertTrue(lock2.writeLock().lock(10_000));
+        Assertions.assertFalse(lock1.readLock().lock(10_000));
+    }
+
+    @Test
+    void multiLockShouldWorkWithQuorum() {
+        DistributedLock lock =
+                new MultiLock(addresses, List.of("entity-1", "entity-2"), Duration.ofMillis(100));
+        DistributedLock other =
+                new MultiLock(addresses, List.of("entity-2", "entity-3"), Duration.ofMillis(100));
+        containers.iterator().next().close();
+
+        Assertions.assertTrue(lock.lock(10_000));
+        Assertions.assertFalse(other.lock(10_000));
+        lock.release();
+        Assertions.assertTrue(other.lock(10_000));
+    }
+
+    @Test
+    void downNodeShouldBeSkippedWithoutSlowingLocksDown() {
+        LockStats stats = new LockStats();
+        DistributedLock lock = new RedLock(addresses, "dist-lock", Duration.ofMillis(500),
+                LockWatchdog.DEFAULT_LEASE, stats);
+        containers.iterator().next().close();
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertTrue(lock.lock(10_000));
+            lock.release();
+        }
+        long errors = stats.nodeFailures();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertTrue(lock.lock(10_000));
+            lock.release();
+        }
+        Assertions.assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+        // Only half-open probes reach the down node while its breaker is open.
+        Assertions.assertTrue(stats.nodeFailures() - errors <= 2);
+    }
 }
\ No newline at end of file
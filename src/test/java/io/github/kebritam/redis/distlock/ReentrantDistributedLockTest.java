@@ -0,0 +1,117 @@
+package io.github.kebritam.redis.distlock;
+
+import com.redis.testcontainers.RedisStackContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class ReentrantDistributedLockTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void ownerShouldBeAbleToReenter() {
+        DistributedLock lock =
+                new ReentrantDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        DistributedLock other =
+                new ReentrantDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+        Assertions.assertTrue(lock.lock(10_000));
+        Assertions.assertTrue(lock.lock(10_000));
+        Assertions.assertFalse(other.lock(10_000));
+
+        lock.release();
+        Assertions.assertFalse(other.lock(10_000));
+        lock.release();
+        Assertions.assertTrue(other.lock(10_000));
+    }
+
+    @Test
+    void threadsSharingAnInstanceShouldExcludeEachOther() throws InterruptedException {
+        DistributedLock lock =
+                new ReentrantDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        Assertions.assertTrue(lock.lock(10_000));
+
+        AtomicBoolean acquired = new AtomicBoolean(true);
+        Thread thread = Thread.startVirtualThread(() -> acquired.set(lock.lock(10_000)));
+        thread.join();
+        Assertions.assertFalse(acquired.get());
+
+        lock.release();
+        thread = Thread.startVirtualThread(() -> acquired.set(lock.lock(10_000)));
+        thread.join();
+        Assertions.assertTrue(acquired.get());
+    }
+
+    @Test
+    void releaseByOtherOwnerShouldNotFreeTheLock() {
+        DistributedLock lock =
+                new ReentrantDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        DistributedLock other =
+                new ReentrantDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+        Assertions.assertTrue(lock.lock(10_000));
+        other.release();
+        Assertions.assertFalse(other.lock(10_000));
+    }
+
+    @Test
+    void operationShouldBeThreadSafeWhenUsingLocking() throws InterruptedException {
+        List<Integer> dataHolder = new ArrayList<>(300);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            threads.add(Thread.startVirtualThread(() -> {
+                DistributedLock lock =
+                        new ReentrantDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+                for (int i = 0; i < 100;) {
+                    if (lock.lock(10_000, Duration.ofSeconds(10))) {
+                        Assertions.assertTrue(lock.lock(10_000));
+                        dataHolder.add(i);
+                        lock.release();
+                        lock.release();
+                        ++i;
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(300, dataHolder.size());
+    }
+
+    @Test
+    void lockShouldExpireWhenOwnerDoesNotRelease() throws InterruptedException {
+        DistributedLock lock =
+                new ReentrantDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+        DistributedLock other =
+                new ReentrantDistributedLock(container.getRedisHost(), container.getRedisPort(), "dist-lock");
+
+        Assertions.assertTrue(lock.lock(200));
+        Assertions.assertTrue(lock.extend(500));
+        Thread.sleep(300);
+        Assertions.assertFalse(other.lock(10_000));
+        Thread.sleep(300);
+        Assertions.assertTrue(other.lock(10_000));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import com.redis.testcontainers.RedisStackContainer;
+import org.junit.jupiter.api.*;
+import org.testcontainers.utility.DockerImageName;
+import redis.clients.jedis.*;
+
+import java.time.Duration;
+import java.util.*;
+
+class ClusterRateLimiterTest {
+    private static final int SLOTS = 16384;
+
+    private static List<RedisStackContainer> containers;
+    private static Map<HostAndPort, HostAndPort> addresses;
+
+    @BeforeAll
+    static void setupAll() {
+        DockerImageName redisImageName = DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64");
+        containers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            containers.add(new RedisStackContainer(redisImageName)
+                    .withEnv("REDIS_ARGS", "--cluster-enabled yes --cluster-node-timeout 5000"));
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        addresses = new HashMap<>();
+        for (RedisStackContainer container : containers) {
+            container.start();
+            addresses.put(new HostAndPort(container.getContainerInfo().getNetworkSettings().getIpAddress(), 6379),
+                    new HostAndPort(container.getRedisHost(), container.getRedisPort()));
+        }
+
+        List<HostAndPort> internalAddresses = new ArrayList<>(addresses.keySet());
+        for (int i = 0; i < internalAddresses.size(); i++) {
+            try (Jedis jedis = new Jedis(addresses.get(internalAddresses.get(i)))) {
+                int from = i * SLOTS / internalAddresses.size();
+                int to = (i + 1) * SLOTS / internalAddresses.size();
+                int[] slots = new int[to - from];
+                for (int slot = from; slot < to; slot++) {
+                    slots[slot - from] = slot;
+                }
+                jedis.clusterAddSlots(slots);
+                for (HostAndPort other : internalAddresses) {
+                    jedis.clusterMeet(other.getHost(), other.getPort());
+                }
+            }
+        }
+
+        for (HostAndPort address : addresses.values()) {
+            try (Jedis jedis = new Jedis(address)) {
+                long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+                while (!jedis.clusterInfo().contains("cluster_state:ok")) {
+                    Assertions.assertTrue(System.nanoTime() - deadline < 0, "Cluster did not form in time");
+                    Thread.sleep(100);
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (RedisStackContainer container : containers) {
+            container.close();
+        }
+        addresses.clear();
+    }
+
+    private static JedisCluster cluster() {
+        return new JedisCluster(new HashSet<>(addresses.values()), DefaultJedisClientConfig.builder()
+                .hostAndPortMapper(address -> addresses.getOrDefault(address, address))
+                .build());
+    }
+
+    @Test
+    void fixedWindowShouldLimitEachTokenOnItsOwnShard() {
+        final int acceptedCalls = 20;
+        RateLimiter limiter = new FixedWindowRateLimiter(cluster(), acceptedCalls, 60, null);
+
+        assertLimitsTokens(limiter, acceptedCalls);
+    }
+
+    @Test
+    void gcraShouldLimitEachTokenOnItsOwnShard() {
+        final int acceptedCalls = 20;
+        RateLimiter limiter = new GcraRateLimiter(cluster(), acceptedCalls, 60);
+
+        assertLimitsTokens(limiter, acceptedCalls);
+    }
+
+    @Test
+    void slidingWindowShouldLimitEachTokenOnItsOwnShard() {
+        final int acceptedCalls = 20;
+        RateLimiter limiter = new SlidingWindowRateLimiter(cluster(), acceptedCalls, 60,
+                SlidingWindowRateLimiter.Mode.COUNTER, true);
+
+        assertLimitsTokens(limiter, acceptedCalls);
+    }
+
+    @Test
+    void multiTierShouldKeepAllTiersOfATokenInOneSlot() {
+        final int acceptedCalls = 20;
+        RateLimiter limiter = new MultiTierRateLimiter(cluster(),
+                List.of(new MultiTierRateLimiter.Tier(acceptedCalls, Duration.ofMinutes(1)),
+                        new MultiTierRateLimiter.Tier(2 * acceptedCalls, Duration.ofHours(1))));
+
+        assertLimitsTokens(limiter, acceptedCalls);
+    }
+
+    @Test
+    void useAllShouldRouteEachTokenToItsShard() {
+        RateLimiter limiter = new FixedWindowRateLimiter(cluster(), 1, 60, null);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tokens.add("token" + i);
+        }
+
+        Assertions.assertTrue(limiter.useAll(tokens).values().stream().allMatch(Boolean::booleanValue));
+        Assertions.assertTrue(limiter.useAll(tokens).values().stream().noneMatch(Boolean::booleanValue));
+    }
+
+    @Test
+    void tokensShouldBeSpreadOverAllShards() {
+        RateLimiter limiter = new FixedWindowRateLimiter(cluster(), 10, 60, null);
+        for (int i = 0; i < 300; i++) {
+            Assertions.assertTrue(limiter.use("token" + i));
+        }
+
+        for (HostAndPort address : addresses.values()) {
+            try (Jedis jedis = new Jedis(address)) {
+                Assertions.assertTrue(jedis.dbSize() > 0, () -> "No keys on " + address);
+            }
+        }
+    }
+
+    @Test
+    void concurrencyLimiterShouldWorkOnCluster() {
+        LeasedConcurrencyLimiter limiter = new LeasedConcurrencyLimiter(cluster(), 2,
+                Duration.ofSeconds(10), Duration.ofMillis(10));
+
+        String first = limiter.tryAcquire("userUniqueToken");
+        Assertions.assertNotNull(first);
+        Assertions.assertNotNull(limiter.tryAcquire("userUniqueToken"));
+        Assertions.assertNull(limiter.tryAcquire("userUniqueToken"));
+        Assertions.assertNotNull(limiter.tryAcquire("otherToken"));
+
+        limiter.release("userUniqueToken", first);
+        limiter.flush();
+        Assertions.assertNotNull(limiter.tryAcquire("userUniqueToken"));
+        limiter.close();
+    }
+
+    private static void assertLimitsTokens(RateLimiter limiter, int acceptedCalls) {
+        for (int token = 0; token < 30; token++) {
+            for (int i = 0; i < acceptedCalls; i++) {
+                int finalToken = token;
+                int finalI = i;
+                Assertions.assertTrue(limiter.use("token" + token), () -> "Token " + finalToken + " at index of " + finalI);
+            }
+            Assertions.assertFalse(limiter.use("token" + token));
+        }
+    }
+}
\ No newline at end of file
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.Test;
 import org.testcontainers.utility.DockerImageName;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 class FixedWindowRateLimiterTest {
     private static final RedisStackContainer container
@@ -128,4 +130,119 @@ class FixedWindowRateLimiterTest {
             Assertions.assertFalse(limiter.use("userUniqueToken2"));
         }
     }
+
+    @Test
+    void useAllShouldEvaluateEveryTokenIndependently() {
+        final int acceptedCalls = 5;
+        RateLimiter limiter = new FixedWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                acceptedCalls);
+
+        for (int i = 0; i < acceptedCalls; i++) {
+            Assertions.assertTrue(limiter.use("user"));
+        }
+
+        Map<String, Boolean> result = limiter.useAll(List.of("user", "tenant", "ip", "endpoint"));
+        Assertions.assertEquals(List.of("user", "tenant", "ip", "endpoint"), List.copyOf(result.keySet()));
+        Assertions.assertFalse(result.get("user"));
+        Assertions.assertTrue(result.get("tenant"));
+        Assertions.assertTrue(result.get("ip"));
+        Assertions.assertTrue(result.get("endpoint"));
+
+        for (int i = 1; i < acceptedCalls; i++) {
+            Assertions.assertTrue(limiter.use("tenant"));
+        }
+        Assertions.assertFalse(limiter.use("tenant"));
+    }
+
+    @Test
+    void acquireShouldWaitForTheNextWindow() throws InterruptedException {
+        final int acceptedCalls = 10;
+        RateLimiter limiter = new FixedWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                acceptedCalls, 1);
+
+        Assertions.assertTrue(limiter.tryAcquire("userUniqueToken", acceptedCalls));
+        Assertions.assertFalse(limiter.tryAcquire("userUniqueToken", 1));
+        Assertions.assertTrue(limiter.acquire("userUniqueToken", 4, Duration.ofSeconds(2)));
+    }
+
+    @Test
+    void aggregatedModeShouldReturnTrueFor50CallsAndReturnFalseForOther() {
+        final int acceptedCalls = 50;
+        try (FixedWindowRateLimiter limiter = new FixedWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                acceptedCalls, 60, Duration.ofMillis(10))) {
+
+            for (int i = 0; i < acceptedCalls; i++) {
+                Assertions.assertTrue(limiter.use("userUniqueToken"));
+            }
+            for (int i = 0; i < 60; i++) {
+                Assertions.assertFalse(limiter.use("userUniqueToken"));
+            }
+        }
+    }
+
+    @Test
+    void aggregatedCallsShouldBeSyncedToRedis() throws InterruptedException {
+        final int acceptedCalls = 50;
+        String redisAddress = container.getRedisHost() + ":" + container.getRedisPort();
+        try (FixedWindowRateLimiter aggregated = new FixedWindowRateLimiter(redisAddress, acceptedCalls, 60, Duration.ofMillis(10));
+             FixedWindowRateLimiter exact = new FixedWindowRateLimiter(redisAddress, acceptedCalls, 60)) {
+
+            for (int i = 0; i < 10; i++) {
+                Assertions.assertTrue(aggregated.use("userUniqueToken"));
+            }
+            Thread.sleep(100);
+
+            Assertions.assertFalse(exact.tryAcquire("userUniqueToken", 41));
+            Assertions.assertTrue(exact.tryAcquire("userUniqueToken", 40));
+
+            Thread.sleep(100);
+            Assertions.assertFalse(aggregated.use("userUniqueToken"));
+        }
+    }
+
+    @Test
+    void aggregatedNodesShouldShareTheLimitAfterSync() throws InterruptedException {
+        final int acceptedCalls = 50;
+        String redisAddress = container.getRedisHost() + ":" + container.getRedisPort();
+        try (FixedWindowRateLimiter limiter1 = new FixedWindowRateLimiter(redisAddress, acceptedCalls, 60, Duration.ofMillis(10));
+             FixedWindowRateLimiter limiter2 = new FixedWindowRateLimiter(redisAddress, acceptedCalls, 60, Duration.ofMillis(10))) {
+
+            for (int i = 0; i < 30; i++) {
+                Assertions.assertTrue(limiter1.use("userUniqueToken"));
+            }
+            Thread.sleep(100);
+
+            int accepted = 0;
+            for (int i = 0; i < acceptedCalls; i++) {
+                if (limiter2.use("userUniqueToken")) {
+                    ++accepted;
+                }
+            }
+            Assertions.assertEquals(20, accepted);
+        }
+    }
+
+    @Test
+    void aggregatedModeShouldCountAcquiresWithTryAcquires() throws InterruptedException {
+        final int acceptedCalls = 10;
+        try (FixedWindowRateLimiter limiter = new FixedWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                acceptedCalls, 1, Duration.ofMillis(10))) {
+
+            Assertions.assertTrue(limiter.tryAcquire("userUniqueToken", 6));
+            Assertions.assertTrue(limiter.acquire("userUniqueToken", 4, Duration.ZERO));
+            Assertions.assertFalse(limiter.tryAcquire("userUniqueToken", 1));
+            Assertions.assertFalse(limiter.acquire("userUniqueToken", 1, Duration.ZERO));
+
+            // Waits for the next window, and counts against it like a tryAcquire does.
+            Assertions.assertTrue(limiter.acquire("userUniqueToken", 4, Duration.ofSeconds(2)));
+            Assertions.assertFalse(limiter.tryAcquire("userUniqueToken", 7));
+            Assertions.assertTrue(limiter.tryAcquire("userUniqueToken", 6));
+            Assertions.assertThrows(UnsupportedOperationException.class,
+                    () -> limiter.lease("userUniqueToken", 1, false));
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import com.redis.testcontainers.RedisStackContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+
+class GcraRateLimiterTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void shouldReturnTrueFor50CallsAndReturnFalseForOtherForTheSameKey() {
+        final int acceptedCalls = 50;
+        RateLimiter limiter = new GcraRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                acceptedCalls, 10);
+
+        for (int i = 0; i < acceptedCalls; i++) {
+            int finalI = i;
+            Assertions.assertTrue(limiter.use("userUniqueToken"), () -> "At index of " + finalI);
+        }
+        for (int i = 0; i < 60; i++) {
+            int finalI = i;
+            Assertions.assertFalse(limiter.use("userUniqueToken"), () -> "At index of " + finalI);
+        }
+    }
+
+    @Test
+    void shouldRefillAfterWindowFinishes() throws InterruptedException {
+        final int acceptedCalls = 50;
+        RateLimiter limiter = new GcraRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                acceptedCalls, 2);
+
+        for (int i = 0; i < acceptedCalls; i++) {
+            int finalI = i;
+            Assertions.assertTrue(limiter.use("userUniqueToken"), () -> "At index of " + finalI);
+        }
+        Assertions.assertFalse(limiter.use("userUniqueToken"));
+
+        Thread.sleep(2_000);
+
+        for (int i = 0; i < acceptedCalls; i++) {
+            int finalI = i;
+            Assertions.assertTrue(limiter.use("userUniqueToken"), () -> "At index of " + finalI);
+        }
+        Assertions.assertFalse(limiter.use("userUniqueToken"));
+    }
+
+    @Test
+    void shouldRefillIfRequestsAreNotBursting() throws InterruptedException {
+        final int acceptedCalls = 50;
+        RateLimiter limiter = new GcraRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                acceptedCalls, 1);
+
+        for (int i = 0; i < 2 * acceptedCalls; i++) {
+            int finalI = i;
+            Assertions.assertTrue(limiter.use("userUniqueToken"), () -> "At index of " + finalI);
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void shouldKeepTokensIndependent() {
+        final int acceptedCalls = 10;
+        RateLimiter limiter = new GcraRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                acceptedCalls, 10);
+
+        for (int i = 0; i < acceptedCalls; i++) {
+            Assertions.assertTrue(limiter.use("firstToken"));
+        }
+        Assertions.assertFalse(limiter.use("firstToken"));
+        Assertions.assertTrue(limiter.use("secondToken"));
+    }
+
+    @Test
+    void tryAcquireShouldConsumeWeightedPermitsAllOrNothing() {
+        RateLimiter limiter = new GcraRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                10, 10);
+
+        Assertions.assertFalse(limiter.tryAcquire("userUniqueToken", 11));
+        Assertions.assertTrue(limiter.tryAcquire("userUniqueToken", 7));
+        Assertions.assertFalse(limiter.tryAcquire("userUniqueToken", 4));
+        Assertions.assertTrue(limiter.tryAcquire("userUniqueToken", 3));
+        Assertions.assertFalse(limiter.use("userUniqueToken"));
+    }
+
+    @Test
+    void acquireShouldWaitUntilPermitsAreAvailable() throws InterruptedException {
+        RateLimiter limiter = new GcraRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                10, 1);
+
+        Assertions.assertTrue(limiter.tryAcquire("userUniqueToken", 10));
+
+        long start = System.nanoTime();
+        Assertions.assertTrue(limiter.acquire("userUniqueToken", 2, Duration.ofSeconds(1)));
+        Assertions.assertTrue(System.nanoTime() - start >= Duration.ofMillis(150).toNanos());
+
+        start = System.nanoTime();
+        Assertions.assertFalse(limiter.acquire("userUniqueToken", 5, Duration.ofMillis(100)));
+        Assertions.assertTrue(System.nanoTime() - start < Duration.ofMillis(100).toNanos());
+        Assertions.assertFalse(limiter.acquire("userUniqueToken", 11, Duration.ofSeconds(10)));
+    }
+}
\ No newline at end of file
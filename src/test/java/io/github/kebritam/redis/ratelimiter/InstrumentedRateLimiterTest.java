@@ -0,0 +1,101 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import com.redis.testcontainers.RedisStackContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.List;
+
+class InstrumentedRateLimiterTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void shouldCountAllowedAndDeniedCalls() {
+        RateLimiterStats stats = new RateLimiterStats();
+        RateLimiter limiter = new InstrumentedRateLimiter(new FixedWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(), 50, 60, null, stats), stats);
+
+        for (int i = 0; i < 110; i++) {
+            limiter.use("userUniqueToken");
+        }
+
+        Assertions.assertEquals(50, stats.allowed());
+        Assertions.assertEquals(60, stats.denied());
+        Assertions.assertEquals(110, stats.roundTrips().count());
+        Assertions.assertTrue(stats.roundTrips().valueAtPercentile(50) > 0);
+        Assertions.assertTrue(stats.roundTrips().valueAtPercentile(99) >= stats.roundTrips().valueAtPercentile(50));
+    }
+
+    @Test
+    void shouldReportHotTokens() {
+        RateLimiterStats stats = new RateLimiterStats(3);
+        RateLimiter limiter = new InstrumentedRateLimiter(new SlidingWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(), 100, 60), stats);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.use("hotToken");
+            if (i % 2 == 0) {
+                limiter.use("warmToken");
+            }
+            limiter.use("coldToken" + i);
+        }
+
+        List<RateLimiterStats.HotToken> hotTokens = stats.hotTokens();
+        Assertions.assertEquals("hotToken", hotTokens.get(0).token());
+        Assertions.assertTrue(hotTokens.get(0).requests() >= 200);
+        Assertions.assertTrue(hotTokens.get(0).denied() >= 100);
+        Assertions.assertEquals("warmToken", hotTokens.get(1).token());
+        Assertions.assertTrue(hotTokens.get(1).requests() >= 100);
+    }
+
+    @Test
+    void useAllShouldRecordEveryToken() {
+        RateLimiterStats stats = new RateLimiterStats();
+        RateLimiter limiter = new InstrumentedRateLimiter(new FixedWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(), 1, 60, null, stats), stats);
+
+        limiter.useAll(List.of("firstToken", "secondToken"));
+        limiter.useAll(List.of("firstToken", "thirdToken"));
+
+        Assertions.assertEquals(3, stats.allowed());
+        Assertions.assertEquals(1, stats.denied());
+        Assertions.assertEquals(2, stats.roundTrips().count());
+
+        stats.reset();
+        Assertions.assertEquals(0, stats.allowed());
+        Assertions.assertTrue(stats.hotTokens().isEmpty());
+    }
+
+    @Test
+    void locallyAdmittedCallsShouldNotCountAsRoundTrips() {
+        RateLimiterStats stats = new RateLimiterStats();
+        try (FixedWindowRateLimiter aggregated = new FixedWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(), 50, 60, Duration.ofMinutes(1), stats)) {
+            RateLimiter limiter = new InstrumentedRateLimiter(aggregated, stats);
+
+            for (int i = 0; i < 110; i++) {
+                limiter.use("userUniqueToken");
+            }
+
+            Assertions.assertEquals(50, stats.allowed());
+            Assertions.assertEquals(60, stats.denied());
+            // Only the first call fetched the global count.
+            Assertions.assertEquals(1, stats.roundTrips().count());
+        }
+    }
+}
\ No newline at end of file
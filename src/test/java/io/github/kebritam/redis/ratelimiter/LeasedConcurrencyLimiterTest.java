@@ -0,0 +1,97 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import com.redis.testcontainers.RedisStackContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+class LeasedConcurrencyLimiterTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void shouldRejectWhenAllSlotsAreInFlight() {
+        try (LeasedConcurrencyLimiter limiter = new LeasedConcurrencyLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                3, Duration.ofSeconds(30), Duration.ofMillis(10))) {
+
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertNotNull(limiter.tryAcquire("tenant"));
+            }
+            Assertions.assertNull(limiter.tryAcquire("tenant"));
+            Assertions.assertNotNull(limiter.tryAcquire("otherTenant"));
+        }
+    }
+
+    @Test
+    void releasedSlotsShouldBecomeAvailableAfterFlush() {
+        try (LeasedConcurrencyLimiter limiter = new LeasedConcurrencyLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                3, Duration.ofSeconds(30), Duration.ofMinutes(1))) {
+
+            List<String> leases = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                leases.add(limiter.tryAcquire("tenant"));
+            }
+            for (String lease : leases) {
+                limiter.release("tenant", lease);
+            }
+            Assertions.assertNull(limiter.tryAcquire("tenant"));
+
+            limiter.flush();
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertNotNull(limiter.tryAcquire("tenant"));
+            }
+        }
+    }
+
+    @Test
+    void backgroundFlusherShouldReleaseSlots() throws InterruptedException {
+        try (LeasedConcurrencyLimiter limiter = new LeasedConcurrencyLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                1, Duration.ofSeconds(30), Duration.ofMillis(20))) {
+
+            String lease = limiter.tryAcquire("tenant");
+            limiter.release("tenant", lease);
+
+            Thread.sleep(200);
+            Assertions.assertNotNull(limiter.tryAcquire("tenant"));
+        }
+    }
+
+    @Test
+    void expiredLeasesShouldBeReclaimed() throws InterruptedException {
+        try (LeasedConcurrencyLimiter crashed = new LeasedConcurrencyLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                2, Duration.ofMillis(200), Duration.ofMinutes(1));
+             LeasedConcurrencyLimiter limiter = new LeasedConcurrencyLimiter(
+                     container.getRedisHost() + ":" + container.getRedisPort(),
+                     2, Duration.ofSeconds(30), Duration.ofMinutes(1))) {
+
+            Assertions.assertNotNull(crashed.tryAcquire("tenant"));
+            Assertions.assertNotNull(crashed.tryAcquire("tenant"));
+            Assertions.assertNull(limiter.tryAcquire("tenant"));
+
+            Thread.sleep(250);
+            Assertions.assertNotNull(limiter.tryAcquire("tenant"));
+            Assertions.assertNotNull(limiter.tryAcquire("tenant"));
+            Assertions.assertNull(limiter.tryAcquire("tenant"));
+        }
+    }
+}
\ No newline at end of file
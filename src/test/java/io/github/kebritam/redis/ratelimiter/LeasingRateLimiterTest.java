@@ -0,0 +1,110 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import com.redis.testcontainers.RedisStackContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+
+class LeasingRateLimiterTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void shouldReturnTrueFor50CallsAndReturnFalseForOtherForTheSameKey() {
+        final int acceptedCalls = 50;
+        RateLimiter limiter = new LeasingRateLimiter(
+                new FixedWindowRateLimiter(container.getRedisHost() + ":" + container.getRedisPort(), acceptedCalls),
+                10, Duration.ofSeconds(10));
+
+        for (int i = 0; i < acceptedCalls; i++) {
+            int finalI = i;
+            Assertions.assertTrue(limiter.use("userUniqueToken"), () -> "At index of " + finalI);
+        }
+        for (int i = 0; i < 60; i++) {
+            int finalI = i;
+            Assertions.assertFalse(limiter.use("userUniqueToken"), () -> "At index of " + finalI);
+        }
+    }
+
+    @Test
+    void shouldLeasePermitsInBlocks() {
+        final int acceptedCalls = 50;
+        LeasableRateLimiter redisLimiter = new FixedWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(), acceptedCalls);
+        RateLimiter limiter = new LeasingRateLimiter(redisLimiter, 10, Duration.ofSeconds(10));
+
+        Assertions.assertTrue(limiter.use("userUniqueToken"));
+
+        PermitLease rest = redisLimiter.lease("userUniqueToken", acceptedCalls, true);
+        Assertions.assertEquals(acceptedCalls - 10, rest.granted());
+        for (int i = 0; i < 9; i++) {
+            Assertions.assertTrue(limiter.use("userUniqueToken"));
+        }
+        Assertions.assertFalse(limiter.use("userUniqueToken"));
+    }
+
+    @Test
+    void nodesShouldNotAdmitMoreThanTheLimitTogether() throws InterruptedException {
+        final int acceptedCalls = 100;
+        String redisAddress = container.getRedisHost() + ":" + container.getRedisPort();
+        RateLimiter limiter1 = new LeasingRateLimiter(
+                new FixedWindowRateLimiter(redisAddress, acceptedCalls), 7, Duration.ofSeconds(10));
+        RateLimiter limiter2 = new LeasingRateLimiter(
+                new FixedWindowRateLimiter(redisAddress, acceptedCalls), 7, Duration.ofSeconds(10));
+
+        int[] accepted = new int[2];
+        Thread thread1 = Thread.ofVirtual().start(() -> {
+            for (int i = 0; i < acceptedCalls; i++) {
+                if (limiter1.use("userUniqueToken")) {
+                    ++accepted[0];
+                }
+            }
+        });
+        Thread thread2 = Thread.ofVirtual().start(() -> {
+            for (int i = 0; i < acceptedCalls; i++) {
+                if (limiter2.use("userUniqueToken")) {
+                    ++accepted[1];
+                }
+            }
+        });
+        thread1.join();
+        thread2.join();
+
+        Assertions.assertTrue(accepted[0] + accepted[1] <= acceptedCalls);
+        Assertions.assertTrue(accepted[0] + accepted[1] > acceptedCalls - 2 * 7);
+    }
+
+    @Test
+    void rejectedTokenShouldBeCachedUntilItsWindowEnds() throws InterruptedException {
+        final int acceptedCalls = 20;
+        RateLimiter limiter = new LeasingRateLimiter(
+                new FixedWindowRateLimiter(container.getRedisHost() + ":" + container.getRedisPort(), acceptedCalls, 2),
+                5, Duration.ofSeconds(10));
+
+        int accepted = 0;
+        for (int i = 0; i < 2 * acceptedCalls; i++) {
+            if (limiter.use("userUniqueToken")) {
+                ++accepted;
+            }
+        }
+        Assertions.assertEquals(acceptedCalls, accepted);
+
+        Thread.sleep(2_100);
+
+        Assertions.assertTrue(limiter.use("userUniqueToken"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package io.github.kebritam.redis.ratelimiter;
+
+import com.redis.testcontainers.RedisStackContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.List;
+
+class MultiTierRateLimiterTest {
+    private static final RedisStackContainer container
+            = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
+
+    @BeforeEach
+    void setUp() {
+        container.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        container.close();
+    }
+
+    @Test
+    void shouldRejectWhenTheStrictestTierIsExhausted() {
+        RateLimiter limiter = new MultiTierRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                List.of(new MultiTierRateLimiter.Tier(50, Duration.ofMinutes(1)),
+                        new MultiTierRateLimiter.Tier(20, Duration.ofHours(1))));
+
+        for (int i = 0; i < 20; i++) {
+            int finalI = i;
+            Assertions.assertTrue(limiter.use("userUniqueToken"), () -> "At index of " + finalI);
+        }
+        for (int i = 0; i < 60; i++) {
+            int finalI = i;
+            Assertions.assertFalse(limiter.use("userUniqueToken"), () -> "At index of " + finalI);
+        }
+    }
+
+    @Test
+    void shouldNotConsumeFromOtherTiersWhenOneRejects() throws InterruptedException {
+        LeasableRateLimiter limiter = new MultiTierRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                List.of(new MultiTierRateLimiter.Tier(5, Duration.ofSeconds(2)),
+                        new MultiTierRateLimiter.Tier(12, Duration.ofHours(1))));
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertTrue(limiter.use("userUniqueToken"));
+        }
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertFalse(limiter.use("userUniqueToken"));
+        }
+
+        Thread.sleep(2_100);
+
+        // Rejected calls did not touch the hourly tier, so it still has seven permits.
+        PermitLease lease = limiter.lease("userUniqueToken", 10, true);
+        Assertions.assertEquals(5, lease.granted());
+        Thread.sleep(2_100);
+        Assertions.assertEquals(2, limiter.lease("userUniqueToken", 10, true).granted());
+        Assertions.assertFalse(limiter.use("userUniqueToken"));
+    }
+
+    @Test
+    void rejectionShouldReportTheLongestBlockingTier() {
+        LeasableRateLimiter limiter = new MultiTierRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                List.of(new MultiTierRateLimiter.Tier(5, Duration.ofSeconds(1)),
+                        new MultiTierRateLimiter.Tier(5, Duration.ofHours(1))));
+
+        Assertions.assertEquals(5, limiter.lease("userUniqueToken", 5, true).granted());
+
+        PermitLease rejected = limiter.lease("userUniqueToken", 1, true);
+        Assertions.assertEquals(0, rejected.granted());
+        Assertions.assertTrue(rejected.durationMillis() > Duration.ofSeconds(1).toMillis());
+    }
+
+    @Test
+    void tiersOfTheSameWindowShouldBeRejected() {
+        String redisAddress = container.getRedisHost() + ":" + container.getRedisPort();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MultiTierRateLimiter(redisAddress,
+                List.of(new MultiTierRateLimiter.Tier(50, Duration.ofMinutes(1)),
+                        new MultiTierRateLimiter.Tier(20, Duration.ofSeconds(60)))));
+    }
+}
\ No newline at end of file
@@ -7,6 +7,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.utility.DockerImageName;
 
+import java.util.List;
+import java.util.Map;
+
 class SlidingWindowRateLimiterTest {
     private static final RedisStackContainer container
             = new RedisStackContainer(DockerImageName.parse("redis/redis-stack:7.2.0-v9-x86_64"));
@@ -80,4 +83,92 @@ class SlidingWindowRateLimiterTest {
         }
 
     }
+
+    @Test
+    void counterModeShouldReturnTrueFor50CallsAndReturnFalseForOtherForTheSameKey() {
+        final int acceptedCalls = 50;
+        RateLimiter limiter = new SlidingWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                acceptedCalls, 2, SlidingWindowRateLimiter.Mode.COUNTER, false);
+
+        for (int i = 0; i < acceptedCalls; i++) {
+            int finalI = i;
+            Assertions.assertTrue(limiter.use("userUniqueToken"), () -> "At index of " + finalI);
+        }
+        for (int i = 0; i < 60; i++) {
+            int finalI = i;
+            Assertions.assertFalse(limiter.use("userUniqueToken"), () -> "At index of " + finalI);
+        }
+    }
+
+    @Test
+    void rejectedCallsShouldNotDelayRefillWhenTheyAreNotRecorded() throws InterruptedException {
+        final int acceptedCalls = 50;
+        RateLimiter limiter = new SlidingWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                acceptedCalls, 1, SlidingWindowRateLimiter.Mode.LOG, false);
+
+        for (int i = 0; i < acceptedCalls; i++) {
+            Assertions.assertTrue(limiter.use("userUniqueToken"));
+        }
+
+        Thread.sleep(500);
+        for (int i = 0; i < 60; i++) {
+            Assertions.assertFalse(limiter.use("userUniqueToken"));
+        }
+
+        Thread.sleep(600);
+        Assertions.assertTrue(limiter.use("userUniqueToken"));
+    }
+
+    @Test
+    void counterModeShouldStayCloseToTheExactLog() throws InterruptedException {
+        final int acceptedCalls = 50;
+        RateLimiter exact = new SlidingWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                acceptedCalls, 1, SlidingWindowRateLimiter.Mode.LOG, false);
+        RateLimiter approximate = new SlidingWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                acceptedCalls, 1, SlidingWindowRateLimiter.Mode.COUNTER, false);
+
+        int exactAccepted = 0;
+        int approximateAccepted = 0;
+        for (int i = 0; i < 300; i++) {
+            if (exact.use("exactToken")) {
+                ++exactAccepted;
+            }
+            if (approximate.use("approximateToken")) {
+                ++approximateAccepted;
+            }
+            Thread.sleep(10);
+        }
+
+        int difference = Math.abs(exactAccepted - approximateAccepted);
+        Assertions.assertTrue(difference <= acceptedCalls / 5,
+                "exact: " + exactAccepted + ", approximate: " + approximateAccepted);
+    }
+
+    @Test
+    void useAllShouldEvaluateEveryTokenIndependently() {
+        final int acceptedCalls = 5;
+        RateLimiter limiter = new SlidingWindowRateLimiter(
+                container.getRedisHost() + ":" + container.getRedisPort(),
+                acceptedCalls, 10);
+
+        for (int i = 0; i < acceptedCalls; i++) {
+            Assertions.assertTrue(limiter.use("user"));
+        }
+
+        Map<String, Boolean> result = limiter.useAll(List.of("user", "tenant", "ip", "endpoint"));
+        Assertions.assertEquals(List.of("user", "tenant", "ip", "endpoint"), List.copyOf(result.keySet()));
+        Assertions.assertFalse(result.get("user"));
+        Assertions.assertTrue(result.get("tenant"));
+        Assertions.assertTrue(result.get("ip"));
+        Assertions.assertTrue(result.get("endpoint"));
+
+        for (int i = 1; i < acceptedCalls; i++) {
+            Assertions.assertTrue(limiter.use("tenant"));
+        }
+        Assertions.assertFalse(limiter.use("tenant"));
+    }
 }
\ No newline at end of file